@@ -0,0 +1,86 @@
+package de.mecrytv.timeBasedAccess.benchmark;
+
+import de.mecrytv.timeBasedAccess.database.access.AccessEvaluator;
+import de.mecrytv.timeBasedAccess.database.access.AccessStatus;
+import de.mecrytv.timeBasedAccess.database.access.PlayerAccess;
+import de.mecrytv.timeBasedAccess.utils.AccessClock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessEvaluationBenchmark {
+
+    private PlayerAccess valid;
+    private PlayerAccess expired;
+    private PlayerAccess notStarted;
+    private PlayerAccess perma;
+    private AccessClock clock;
+
+    @Setup
+    public void setup() {
+        clock = AccessClock.system();
+        clock.startRefreshing(100);
+
+        Instant now = clock.instant();
+        valid = new PlayerAccess(UUID.randomUUID(), "Valid", now.minus(Duration.ofDays(1)), now.plus(Duration.ofDays(1)), false);
+        expired = new PlayerAccess(UUID.randomUUID(), "Expired", now.minus(Duration.ofDays(2)), now.minus(Duration.ofDays(1)), false);
+        notStarted = new PlayerAccess(UUID.randomUUID(), "NotStarted", now.plus(Duration.ofDays(1)), now.plus(Duration.ofDays(2)), false);
+        perma = new PlayerAccess(UUID.randomUUID(), "Perma", now, now, true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        clock.stopRefreshing();
+    }
+
+    // Reads the coarse clock like the login path does on every check.
+    @Benchmark
+    public AccessStatus valid() {
+        return AccessEvaluator.evaluate(valid, clock.coarseMillis());
+    }
+
+    @Benchmark
+    public AccessStatus expired() {
+        return AccessEvaluator.evaluate(expired, clock.coarseMillis());
+    }
+
+    @Benchmark
+    public AccessStatus notStarted() {
+        return AccessEvaluator.evaluate(notStarted, clock.coarseMillis());
+    }
+
+    @Benchmark
+    public AccessStatus perma() {
+        return AccessEvaluator.evaluate(perma, clock.coarseMillis());
+    }
+
+    // The same check against the exact clock, for comparison.
+    @Benchmark
+    public AccessStatus validExactClock() {
+        return AccessEvaluator.evaluate(valid, clock.millis());
+    }
+
+    @Benchmark
+    public AccessStatus noAccess() {
+        return AccessEvaluator.evaluate(null, clock.coarseMillis());
+    }
+}
@@ -0,0 +1,101 @@
+package de.mecrytv.timeBasedAccess.benchmark;
+
+import de.mecrytv.timeBasedAccess.database.access.AccessManager;
+import de.mecrytv.timeBasedAccess.database.access.PlayerAccess;
+import de.mecrytv.timeBasedAccess.metrics.AccessMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessManagerBenchmark {
+
+    @Param({"10000"})
+    public int players;
+
+    // A cache smaller than the player count turns part of the lookups into store reads and evictions.
+    @Param({"10000", "1000"})
+    public int cacheSize;
+
+    private AccessManager accessManager;
+    private UUID[] playerUUIDs;
+    private List<UUID> onlineBatch;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        InMemoryAccessStore store = new InMemoryAccessStore();
+        Instant now = Instant.now();
+
+        playerUUIDs = new UUID[players];
+        for (int i = 0; i < players; i++) {
+            UUID playerUUID = UUID.randomUUID();
+            playerUUIDs[i] = playerUUID;
+            store.save(new PlayerAccess(playerUUID, "Player" + i, now.minus(Duration.ofDays(1)), now.plus(Duration.ofDays(1)), i % 10 == 0));
+        }
+
+        accessManager = new AccessManager(store, cacheSize, new AccessMetrics(), LoggerFactory.getLogger(AccessManagerBenchmark.class));
+
+        onlineBatch = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) {
+            onlineBatch.add(playerUUIDs[i * (players / 100)]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        accessManager.close();
+    }
+
+    private UUID randomPlayer() {
+        return playerUUIDs[ThreadLocalRandom.current().nextInt(players)];
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<PlayerAccess> getPlayerAccess() {
+        return accessManager.getPlayerAccess(randomPlayer());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean hasValidAccess() {
+        return accessManager.hasValidAccess(randomPlayer());
+    }
+
+    @Benchmark
+    public Optional<PlayerAccess> unknownPlayer() {
+        return accessManager.getPlayerAccess(new UUID(ThreadLocalRandom.current().nextLong(), 0L));
+    }
+
+    @Benchmark
+    public Map<UUID, PlayerAccess> getPlayerAccesses() {
+        return accessManager.getPlayerAccesses(onlineBatch);
+    }
+}
@@ -0,0 +1,78 @@
+package de.mecrytv.timeBasedAccess.benchmark;
+
+import de.mecrytv.timeBasedAccess.database.access.AccessEvaluator;
+import de.mecrytv.timeBasedAccess.database.access.AccessStatus;
+import de.mecrytv.timeBasedAccess.database.access.CompactAccessIndex;
+import de.mecrytv.timeBasedAccess.database.access.PlayerAccess;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Lookup of a random known player in the compact index versus the object map it replaces in "full" cache mode.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class CompactIndexBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int grants;
+
+    private UUID[] players;
+    private CompactAccessIndex index;
+    private Map<UUID, PlayerAccess> objects;
+    private long nowMillis;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        Instant now = Instant.now();
+        nowMillis = now.toEpochMilli();
+        players = new UUID[grants];
+        index = new CompactAccessIndex();
+        objects = new HashMap<>();
+
+        for (int i = 0; i < grants; i++) {
+            UUID playerUUID = new UUID(random.nextLong(), random.nextLong());
+            PlayerAccess access = new PlayerAccess(playerUUID, "Player" + i, now.minus(Duration.ofDays(random.nextInt(30))),
+                    now.plus(Duration.ofDays(random.nextInt(-5, 30))), random.nextInt(10) == 0);
+            players[i] = playerUUID;
+            index.put(access);
+            objects.put(playerUUID, access);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    @Benchmark
+    public AccessStatus index(Cursor cursor) {
+        return index.evaluate(players[cursor.next++ % grants], nowMillis);
+    }
+
+    @Benchmark
+    public AccessStatus objectMap(Cursor cursor) {
+        return AccessEvaluator.evaluate(objects.get(players[cursor.next++ % grants]), nowMillis);
+    }
+}
@@ -0,0 +1,79 @@
+package de.mecrytv.timeBasedAccess.benchmark;
+
+import de.mecrytv.timeBasedAccess.database.access.PlayerAccess;
+import de.mecrytv.timeBasedAccess.database.store.AccessStore;
+import de.mecrytv.timeBasedAccess.database.store.AccessStoreException;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Store without I/O so AccessManager benchmarks measure the cache and lookup overhead only.
+public class InMemoryAccessStore implements AccessStore {
+
+    private final Map<UUID, PlayerAccess> accesses = new ConcurrentHashMap<>();
+
+    @Override
+    public void init() {
+    }
+
+    @Override
+    public Optional<PlayerAccess> find(UUID playerUUID) {
+        return Optional.ofNullable(accesses.get(playerUUID));
+    }
+
+    @Override
+    public Map<UUID, PlayerAccess> findAll(Collection<UUID> playerUUIDs) {
+        Map<UUID, PlayerAccess> result = new HashMap<>();
+        for (UUID playerUUID : playerUUIDs) {
+            PlayerAccess access = accesses.get(playerUUID);
+            if (access != null) {
+                result.put(playerUUID, access);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<UUID> findUUIDByName(String playerName) {
+        for (PlayerAccess access : accesses.values()) {
+            if (access.getPlayerName().equalsIgnoreCase(playerName)) {
+                return Optional.of(access.getPlayerUUID());
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void forEach(AccessVisitor visitor) throws AccessStoreException {
+        try {
+            for (PlayerAccess access : accesses.values()) {
+                visitor.visit(access);
+            }
+        } catch (Exception e) {
+            throw new AccessStoreException("Error visiting accesses", e);
+        }
+    }
+
+    @Override
+    public void save(PlayerAccess playerAccess) {
+        accesses.put(playerAccess.getPlayerUUID(), playerAccess);
+    }
+
+    @Override
+    public boolean delete(UUID playerUUID) {
+        return accesses.remove(playerUUID) != null;
+    }
+
+    @Override
+    public int deleteExpired(long cutoffMillis, int limit) {
+        return 0;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,65 @@
+package de.mecrytv.timeBasedAccess.benchmark;
+
+import de.mecrytv.timeBasedAccess.database.access.PlayerAccess;
+import de.mecrytv.timeBasedAccess.messages.AccessMessages;
+import de.mecrytv.timeBasedAccess.utils.AccessClock;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.yaml.YamlConfigurationLoader;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageRenderingBenchmark {
+
+    private AccessMessages messages;
+    private PlayerAccess playerAccess;
+
+    // Uses the bundled config.yml so the benchmark renders the same templates a fresh install does.
+    @Setup
+    public void setup() throws Exception {
+        ConfigurationNode config = YamlConfigurationLoader.builder()
+                .url(MessageRenderingBenchmark.class.getClassLoader().getResource("config.yml"))
+                .build()
+                .load();
+
+        messages = new AccessMessages(config.node("messages"), ZoneId.of(config.node("time").node("zone").getString("UTC")), AccessClock.system());
+
+        Instant now = Instant.now();
+        playerAccess = new PlayerAccess(UUID.randomUUID(), "Player", now.plus(Duration.ofDays(1)), now.plus(Duration.ofDays(2)), false);
+    }
+
+    @Benchmark
+    public Component noAccess() {
+        return messages.noAccess();
+    }
+
+    @Benchmark
+    public Component expired() {
+        return messages.expired(playerAccess);
+    }
+
+    @Benchmark
+    public Component notStarted() {
+        return messages.notStarted(playerAccess);
+    }
+}
@@ -0,0 +1,51 @@
+package de.mecrytv.timeBasedAccess.benchmark;
+
+import de.mecrytv.timeBasedAccess.utils.TimeParser;
+import de.mecrytv.timeBasedAccess.utils.TimeRange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeParsingBenchmark {
+
+    @Param({"30m", "1d12h30m", "1mo2w", "2030-12-31T18:00", "2030-12-24..2w", "invalid"})
+    public String input;
+
+    private Instant now;
+    private ZoneId zone;
+
+    @Setup
+    public void setup() {
+        now = Instant.now();
+        zone = ZoneId.of("Europe/Berlin");
+    }
+
+    @Benchmark
+    public TimeRange parse() {
+        return TimeParser.parse(input, now, zone);
+    }
+
+    // The tab completion path; expected to report 0 B/op under -prof gc.
+    @Benchmark
+    public boolean isValid() {
+        return TimeParser.isValid(input);
+    }
+}
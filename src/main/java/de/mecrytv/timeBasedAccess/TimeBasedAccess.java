@@ -11,20 +11,48 @@ import com.velocitypowered.api.proxy.ProxyServer;
 import de.mecrytv.timeBasedAccess.commands.PlayerAccessCommand;
 import de.mecrytv.timeBasedAccess.database.DatabaseManager;
 import de.mecrytv.timeBasedAccess.database.access.AccessManager;
+import de.mecrytv.timeBasedAccess.database.access.AccessSnapshot;
+import de.mecrytv.timeBasedAccess.database.access.AccessWarmup;
+import de.mecrytv.timeBasedAccess.database.access.CircuitBreaker;
 import de.mecrytv.timeBasedAccess.database.access.PlayerAccess;
+import de.mecrytv.timeBasedAccess.database.store.AccessStore;
+import de.mecrytv.timeBasedAccess.database.store.LocalAccessStore;
+import de.mecrytv.timeBasedAccess.database.store.MySqlAccessStore;
 import de.mecrytv.timeBasedAccess.listeners.PlayerAccessListener;
+import de.mecrytv.timeBasedAccess.listeners.ServerAccessListener;
+import de.mecrytv.timeBasedAccess.messages.AccessMessages;
+import de.mecrytv.timeBasedAccess.metrics.AccessMetrics;
+import de.mecrytv.timeBasedAccess.metrics.MetricsExporter;
+import de.mecrytv.timeBasedAccess.scheduler.AccessSnapshotTask;
+import de.mecrytv.timeBasedAccess.scheduler.AccessSyncTask;
+import de.mecrytv.timeBasedAccess.scheduler.ExpiredAccessCleanupTask;
+import de.mecrytv.timeBasedAccess.utils.AccessClock;
 import de.mecrytv.timeBasedAccess.utils.LogWithColor;
+import de.mecrytv.timeBasedAccess.utils.PlayerNameIndex;
+import de.mecrytv.timeBasedAccess.utils.UUIDResolver;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.slf4j.Logger;
 import org.spongepowered.configurate.ConfigurationNode;
 import org.spongepowered.configurate.yaml.YamlConfigurationLoader;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Plugin(
         id = "timebasedaccess",
@@ -42,10 +70,23 @@ public class TimeBasedAccess {
     private ConfigurationNode config;
     private static MiniMessage miniMessage = MiniMessage.miniMessage();
     private static Component prefix;
+    private static AccessMessages messages;
+    private static AccessClock clock = AccessClock.system();
+    private static ZoneId zone = ZoneId.systemDefault();
 
+    private static ExecutorService ioExecutor;
+    private static AccessMetrics metrics;
     private static DatabaseManager databaseManager;
     private static AccessManager accessManager;
+    private static UUIDResolver uuidResolver;
+    private static PlayerNameIndex nameIndex;
+    private static ServerAccessListener serverAccess;
     private PlayerAccessListener playerAccessListener;
+    private ExpiredAccessCleanupTask cleanupTask;
+    private AccessSyncTask syncTask;
+    private AccessSnapshotTask snapshotTask;
+    private MetricsExporter metricsExporter;
+    private AccessWarmup warmup;
 
     @Inject
     public TimeBasedAccess(Logger logger, ProxyServer server, @DataDirectory Path dataDirectory) {
@@ -60,23 +101,133 @@ public class TimeBasedAccess {
         startLog();
         loadConfig();
 
-        databaseManager = new DatabaseManager();
-        accessManager = new AccessManager();
+        clock.startRefreshing(config.node("time").node("coarse-resolution-millis").getLong(100));
+        ioExecutor = createIoExecutor();
+        metrics = new AccessMetrics();
+        accessManager = new AccessManager(createAccessStore(), config.node("cache").node("max-size").getInt(10000), metrics, clock, logger);
+        if (config.node("write-behind").node("enabled").getBoolean(false)) {
+            accessManager.enableWriteBehind(
+                    config.node("write-behind").node("max-batch-size").getInt(500),
+                    config.node("write-behind").node("flush-interval-millis").getLong(200)
+            );
+        }
+        if (config.node("admission").node("enabled").getBoolean(true)) {
+            accessManager.enableAdmissionControl(
+                    config.node("admission").node("max-concurrent").getInt(8),
+                    config.node("admission").node("max-queue").getInt(500),
+                    config.node("admission").node("queue-timeout-millis").getLong(1000)
+            );
+        }
+        ConfigurationNode degradedMode = config.node("degraded-mode");
+        if (accessManager.isShared() && degradedMode.node("enabled").getBoolean(true)) {
+            accessManager.enableDegradedMode(
+                    new CircuitBreaker(
+                            degradedMode.node("failure-threshold").getInt(5),
+                            degradedMode.node("open-seconds").getLong(30) * 1000,
+                            logger
+                    ),
+                    new AccessSnapshot(dataDirectory.resolve(degradedMode.node("snapshot-file").getString("access-snapshot.tsv")), logger)
+            );
+        }
+        // Read before the index and the cache are filled, so every change made while they load is replayed afterwards.
+        long loadVersion = accessManager.getCurrentVersion();
+        if ("full".equalsIgnoreCase(config.node("cache").node("mode").getString("lru"))) {
+            accessManager.enableFullIndex();
+            loadFullIndex(loadVersion);
+        }
+        registerAccessGauges();
+
+        if (accessManager.isShared() && config.node("warmup").node("enabled").getBoolean(true)) {
+            warmUp(config.node("warmup"));
+        }
+        uuidResolver = new UUIDResolver(config.node("mojang"), ioExecutor);
+
+        nameIndex = new PlayerNameIndex(logger);
+        accessManager.addChangeListener(nameIndex);
+        nameIndex.load(accessManager, ioExecutor, server.getAllPlayers());
+
+        if (config.node("cleanup").node("enabled").getBoolean(true)) {
+            cleanupTask = new ExpiredAccessCleanupTask(accessManager, config.node("cleanup"));
+            cleanupTask.start();
+        }
+
+        if (accessManager.isShared() && config.node("sync").node("enabled").getBoolean(true)) {
+            syncTask = new AccessSyncTask(accessManager, config.node("sync"), loadVersion);
+            syncTask.start();
+        }
+
+        if (accessManager.getSnapshot() != null) {
+            snapshotTask = new AccessSnapshotTask(accessManager, degradedMode);
+            snapshotTask.start();
+        }
 
         server.getCommandManager().register("playerAccess", new PlayerAccessCommand());
-        server.getEventManager().register(this, new PlayerAccessListener());
+        serverAccess = new ServerAccessListener(server, config.node("server-access"));
+        accessManager.addChangeListener(serverAccess);
+        metrics.registerGauge("tbaccess_server_restricted_players", "gauge",
+                "Online players whose grant is limited to some servers", serverAccess::getRestrictedCount);
+        metrics.registerGauge("tbaccess_server_denied_total", "counter",
+                "Server connections denied by per-server grants", serverAccess::getDeniedCount);
+        server.getEventManager().register(this, serverAccess);
+
+        playerAccessListener = new PlayerAccessListener();
+        server.getEventManager().register(this, playerAccessListener);
+        server.getEventManager().register(this, nameIndex);
+
+        metricsExporter = new MetricsExporter(metrics, config.node("metrics"), dataDirectory);
+        metricsExporter.start();
     }
 
     @Subscribe
     public void onProxyShutdown(ProxyShutdownEvent event) {
+        if (metricsExporter != null) {
+            metricsExporter.stop();
+        }
+
         if (playerAccessListener != null) {
             playerAccessListener.shutdown();
         }
 
+        if (warmup != null) {
+            warmup.cancel();
+        }
+
+        if (cleanupTask != null) {
+            cleanupTask.stop();
+        }
+
+        if (syncTask != null) {
+            syncTask.stop();
+        }
+
+        if (snapshotTask != null) {
+            snapshotTask.stop();
+        }
+
+        if (ioExecutor != null) {
+            long shutdownTimeout = Math.max(0, config.node("executor").node("shutdown-timeout-seconds").getLong(5));
+            ioExecutor.shutdown();
+            try {
+                if (!ioExecutor.awaitTermination(shutdownTimeout, TimeUnit.SECONDS)) {
+                    logger.warn("IO tasks still running after {} s, interrupting them", shutdownTimeout);
+                    ioExecutor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                ioExecutor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (accessManager != null) {
+            accessManager.close();
+        }
+
         if (databaseManager != null) {
             databaseManager.shutDown();
         }
 
+        clock.stopRefreshing();
+
         logger.info(LogWithColor.color("Plugin has been disabled!", LogWithColor.RED));
     }
 
@@ -122,10 +273,13 @@ public class TimeBasedAccess {
                     .build();
 
             config = loader.load();
+            mergeDefaults(config);
             logger.info("Konfiguration erfolgreich geladen.");
 
             String prefixString = config.node("prefix").getString();
             prefix = miniMessage.deserialize(prefixString);
+            zone = readZone(config.node("time").node("zone"), ZoneId.systemDefault());
+            messages = new AccessMessages(config.node("messages"), zone, clock);
 
         } catch (IOException e) {
             logger.error("Fehler beim Laden der Konfiguration: ", e);
@@ -133,6 +287,132 @@ public class TimeBasedAccess {
 
     }
 
+    public void reloadConfig() {
+        loadConfig();
+    }
+
+    private void mergeDefaults(ConfigurationNode node) throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("config.yml")) {
+            if (in == null) {
+                return;
+            }
+
+            ConfigurationNode defaults = YamlConfigurationLoader.builder()
+                    .source(() -> new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)))
+                    .build()
+                    .load();
+            node.mergeFrom(defaults);
+        }
+    }
+
+    private ZoneId readZone(ConfigurationNode node, ZoneId fallback) {
+        String id = node.getString();
+        if (id == null || id.isBlank()) {
+            return fallback;
+        }
+        try {
+            return ZoneId.of(id.trim());
+        } catch (DateTimeException e) {
+            logger.warn("Unbekannte Zeitzone '{}', verwende {}", id, fallback);
+            return fallback;
+        }
+    }
+
+    // The zone older versions wrote local date-times in; only used to convert them once.
+    private ZoneId legacyZone() {
+        return readZone(config.node("time").node("legacy-zone"), zone);
+    }
+
+    private AccessStore createAccessStore() {
+        ConfigurationNode storage = config.node("storage");
+        String type = storage.node("type").getString("mysql");
+
+        if ("local".equalsIgnoreCase(type)) {
+            Path file = dataDirectory.resolve(storage.node("local").node("file").getString("access-data.log"));
+            logger.info("Using local access store at {}", file);
+            return new LocalAccessStore(file, storage.node("local").node("fsync").getBoolean(true), logger);
+        }
+
+        databaseManager = new DatabaseManager();
+        return new MySqlAccessStore(databaseManager, legacyZone(), logger);
+    }
+
+    // Until the load finishes, lookups fall back to the store as in "lru" mode.
+    private void loadFullIndex(long sinceVersion) {
+        ioExecutor.execute(() -> {
+            try {
+                accessManager.loadFullIndex(sinceVersion);
+            } catch (Exception e) {
+                logger.error("Error loading the access index, players without a cached grant are looked up in the store: ", e);
+            }
+        });
+    }
+
+    // Blocks proxy startup for at most deadline-millis; whatever is not loaded by then keeps loading in the background.
+    private void warmUp(ConfigurationNode warmupConfig) {
+        long deadlineMillis = Math.max(0, warmupConfig.node("deadline-millis").getLong(5000));
+        warmup = new AccessWarmup(
+                accessManager,
+                ioExecutor,
+                logger,
+                warmupConfig.node("parallelism").getInt(4),
+                warmupConfig.node("page-size").getInt(1000),
+                config.node("cache").node("max-size").getInt(10000)
+        );
+
+        CompletableFuture<Integer> done = warmup.start();
+        try {
+            done.get(deadlineMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.info("Access warm-up still running after {} ms ({} grants loaded), continuing in the background",
+                    deadlineMillis, warmup.getLoaded());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.warn("Access warm-up failed: ", e.getCause());
+        }
+    }
+
+    private void registerAccessGauges() {
+        metrics.registerGauge("tbaccess_cache_entries", "gauge", "Entries in the access cache",
+                () -> accessManager.getCache().size());
+        metrics.registerGauge("tbaccess_cache_hits_total", "counter", "Access cache hits",
+                () -> accessManager.getCache().getHits());
+        metrics.registerGauge("tbaccess_cache_misses_total", "counter", "Access cache misses",
+                () -> accessManager.getCache().getMisses());
+        metrics.registerGauge("tbaccess_cache_evictions_total", "counter", "Access cache evictions",
+                () -> accessManager.getCache().getEvictions());
+        metrics.registerGauge("tbaccess_singleflight_joins_total", "counter", "Cache misses served by another caller's lookup",
+                accessManager::getSingleFlightJoins);
+        if (accessManager.getIndex() != null) {
+            metrics.registerGauge("tbaccess_index_entries", "gauge", "Grants in the compact access index",
+                    () -> accessManager.getIndex().size());
+            metrics.registerGauge("tbaccess_index_memory_bytes", "gauge", "Memory held by the compact access index tables",
+                    () -> accessManager.getIndex().getMemoryBytes());
+        }
+        if (accessManager.getCircuitBreaker() != null) {
+            metrics.registerGauge("tbaccess_circuit_open", "gauge", "1 while the access store circuit is open or probing",
+                    () -> accessManager.isDegraded() ? 1 : 0);
+            metrics.registerGauge("tbaccess_circuit_trips_total", "counter", "Times the access store circuit opened",
+                    () -> accessManager.getCircuitBreaker().getTrips());
+            metrics.registerGauge("tbaccess_circuit_short_circuited_total", "counter", "Store calls skipped while the circuit was open",
+                    () -> accessManager.getCircuitBreaker().getShortCircuited());
+            metrics.registerGauge("tbaccess_snapshot_entries", "gauge", "Grants in the last-known-good snapshot",
+                    () -> accessManager.getSnapshot().size());
+        }
+        if (accessManager.getAdmissionGate() != null) {
+            metrics.registerGauge("tbaccess_admission_pending", "gauge", "Logins admitted and not yet decided",
+                    () -> accessManager.getAdmissionGate().getPending());
+        }
+    }
+
+    // One virtual thread per task: blocking JDBC and HTTP calls park instead of holding a platform thread.
+    // Concurrency towards the database is bounded by the connection pool size, not by this executor.
+    private ExecutorService createIoExecutor() {
+        ThreadFactory threadFactory = Thread.ofVirtual().name("TBAccess-IO-", 1).factory();
+        return Executors.newThreadPerTaskExecutor(threadFactory);
+    }
+
     public static TimeBasedAccess getInstance() {
         return instance;
     }
@@ -145,10 +425,22 @@ public class TimeBasedAccess {
         return logger;
     }
 
+    public Path getDataDirectory() {
+        return dataDirectory;
+    }
+
     public ConfigurationNode getConfig() {
         return config;
     }
 
+    public static ExecutorService getIoExecutor() {
+        return ioExecutor;
+    }
+
+    public static AccessMetrics getMetrics() {
+        return metrics;
+    }
+
     public static DatabaseManager getDatabaseManager() {
         return databaseManager;
     }
@@ -157,6 +449,30 @@ public class TimeBasedAccess {
         return accessManager;
     }
 
+    public static UUIDResolver getUUIDResolver() {
+        return uuidResolver;
+    }
+
+    public static ServerAccessListener getServerAccess() {
+        return serverAccess;
+    }
+
+    public static PlayerNameIndex getNameIndex() {
+        return nameIndex;
+    }
+
+    public static AccessClock getClock() {
+        return clock;
+    }
+
+    public static ZoneId getZone() {
+        return zone;
+    }
+
+    public static AccessMessages getMessages() {
+        return messages;
+    }
+
     public static Component getPrefix() {
         return prefix;
     }
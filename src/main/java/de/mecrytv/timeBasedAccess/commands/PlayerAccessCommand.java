@@ -4,16 +4,31 @@ import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.command.SimpleCommand;
 import com.velocitypowered.api.proxy.Player;
 import de.mecrytv.timeBasedAccess.TimeBasedAccess;
+import de.mecrytv.timeBasedAccess.database.access.AccessCache;
+import de.mecrytv.timeBasedAccess.database.access.AccessStatus;
+import de.mecrytv.timeBasedAccess.database.access.CircuitBreaker;
+import de.mecrytv.timeBasedAccess.database.access.CompactAccessIndex;
 import de.mecrytv.timeBasedAccess.database.access.PlayerAccess;
+import de.mecrytv.timeBasedAccess.listeners.ServerAccessListener;
+import de.mecrytv.timeBasedAccess.metrics.AccessMetrics;
+import de.mecrytv.timeBasedAccess.metrics.OperationTimer;
+import de.mecrytv.timeBasedAccess.transfer.AccessTransfer;
 import de.mecrytv.timeBasedAccess.utils.GeneralUtils;
+import de.mecrytv.timeBasedAccess.utils.TimeParser;
+import de.mecrytv.timeBasedAccess.utils.TimeRange;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 
-import java.time.LocalDateTime;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class PlayerAccessCommand implements SimpleCommand {
@@ -23,10 +38,18 @@ public class PlayerAccessCommand implements SimpleCommand {
 
     private static final String CREATE_TYPE = "create";
     private static final String REMOVE_TYPE = "remove";
-    private static final List<String> COMMAND_TYPES = Arrays.asList(CREATE_TYPE, REMOVE_TYPE);
+    private static final String RELOAD_TYPE = "reload";
+    private static final String IMPORT_TYPE = "import";
+    private static final String EXPORT_TYPE = "export";
+    private static final String STATS_TYPE = "stats";
+    private static final List<String> COMMAND_TYPES = Arrays.asList(CREATE_TYPE, REMOVE_TYPE, RELOAD_TYPE, IMPORT_TYPE, EXPORT_TYPE, STATS_TYPE);
 
-    private static final List<String> TIME_EXAMPLES = Arrays.asList("1d", "2h", "30m", "1h30m", "7d");
+    private static final int TRANSFER_CHUNK_SIZE = 500;
+
+    private static final List<String> TIME_EXAMPLES = Arrays.asList("1d", "2h", "30m", "1h30m", "7d", "2w", "1mo");
+    private static final List<String> TIME_UNITS = Arrays.asList("m", "h", "d", "w", "mo");
     private static final List<String> BOOLEAN_VALUES = Arrays.asList("true", "false");
+    private static final int MAX_NAME_SUGGESTIONS = 50;
 
     @Override
     public void execute(Invocation invocation) {
@@ -61,37 +84,59 @@ public class PlayerAccessCommand implements SimpleCommand {
             case REMOVE_TYPE:
                 handleRemoveCommand(player, args);
                 break;
+            case RELOAD_TYPE:
+                handleReloadCommand(player);
+                break;
+            case IMPORT_TYPE:
+                handleImportCommand(player, args);
+                break;
+            case EXPORT_TYPE:
+                handleExportCommand(player, args);
+                break;
+            case STATS_TYPE:
+                handleStatsCommand(player);
+                break;
             default:
                 sendInvalidTypeMessage(player);
                 break;
         }
     }
 
+    // Answered from memory on the calling thread; SimpleCommand's default suggestAsync wraps it in a completed future.
     @Override
-    public CompletableFuture<List<String>> suggestAsync(Invocation invocation) {
+    public List<String> suggest(Invocation invocation) {
         String[] args = invocation.arguments();
 
-        return CompletableFuture.supplyAsync(() -> {
-            if (args.length == 1) {
-                return COMMAND_TYPES.stream()
-                        .filter(type -> type.startsWith(args[0].toLowerCase()))
-                        .collect(Collectors.toList());
-            } else if (args.length == 3 && CREATE_TYPE.equals(args[0].toLowerCase())) {
-                return TIME_EXAMPLES.stream()
-                        .filter(time -> time.startsWith(args[2].toLowerCase()))
-                        .collect(Collectors.toList());
-            } else if (args.length == 4 && CREATE_TYPE.equals(args[0].toLowerCase())) {
-                return BOOLEAN_VALUES.stream()
-                        .filter(bool -> bool.startsWith(args[3].toLowerCase()))
-                        .collect(Collectors.toList());
-            }
-
+        if (!invocation.source().hasPermission(PERMISSION)) {
             return List.of();
-        });
+        }
+
+        if (args.length <= 1) {
+            String prefix = args.length == 0 ? "" : args[0].toLowerCase();
+            return COMMAND_TYPES.stream()
+                    .filter(type -> type.startsWith(prefix))
+                    .collect(Collectors.toList());
+        }
+
+        String type = args[0].toLowerCase();
+
+        if (args.length == 2 && (CREATE_TYPE.equals(type) || REMOVE_TYPE.equals(type))) {
+            return TimeBasedAccess.getNameIndex().suggest(args[1], CREATE_TYPE.equals(type), MAX_NAME_SUGGESTIONS);
+        } else if (args.length == 3 && CREATE_TYPE.equals(type)) {
+            return suggestTime(args[2]);
+        } else if (args.length == 4 && CREATE_TYPE.equals(type)) {
+            return BOOLEAN_VALUES.stream()
+                    .filter(bool -> bool.startsWith(args[3].toLowerCase()))
+                    .collect(Collectors.toList());
+        } else if (args.length == 5 && CREATE_TYPE.equals(type)) {
+            return suggestServers(args[4]);
+        }
+
+        return List.of();
     }
 
     private void handleCreateCommand(Player player, String[] args) {
-        if (args.length != 4) {
+        if (args.length != 4 && args.length != 5) {
             sendCreateUsage(player);
             return;
         }
@@ -107,29 +152,74 @@ public class PlayerAccessCommand implements SimpleCommand {
             return;
         }
 
-        UUID playerUUID = GeneralUtils.getUUIDFromName(playerName);
-        if (playerUUID == null) {
-            player.sendMessage(createErrorMessage("Player not found!"));
+        Set<String> serverScopes;
+        try {
+            serverScopes = args.length == 5 ? GeneralUtils.parseServerScopes(args[4]) : Set.of();
+        } catch (IllegalArgumentException e) {
+            player.sendMessage(createErrorMessage(e.getMessage() + "!"));
             return;
         }
 
-        LocalDateTime[] timeResult = GeneralUtils.parseTime(time);
-        if (timeResult == null) {
-            player.sendMessage(createErrorMessage("Invalid time format! Use format like: 1d, 2h, 30m, 45s"));
+        TimeRange timeRange = TimeParser.parse(time, TimeBasedAccess.getClock().instant(), TimeBasedAccess.getZone());
+        if (timeRange == null) {
+            player.sendMessage(createErrorMessage("Invalid time format! Use format like: 1h30m, 2w, 1mo, 2025-12-31 or 2025-12-24..2w"));
             return;
         }
 
-        LocalDateTime startTime = timeResult[0];
-        LocalDateTime endTime = timeResult[1];
+        Instant startTime = timeRange.getStart();
+        Instant endTime = timeRange.getEnd();
 
-        if (TimeBasedAccess.getAccessManager().getPlayerAccess(playerUUID).isEmpty()) {
-            PlayerAccess playerAccess = new PlayerAccess(playerUUID, playerName, startTime, endTime, permaAccess);
-            TimeBasedAccess.getAccessManager().createPlayerAccess(playerAccess);
+        resolvePlayer(player, playerName, playerUUID -> {
+            if (TimeBasedAccess.getAccessManager().getPlayerAccess(playerUUID).isEmpty()) {
+                PlayerAccess playerAccess = new PlayerAccess(playerUUID, playerName, startTime, endTime, permaAccess, serverScopes);
+                TimeBasedAccess.getAccessManager().createPlayerAccess(playerAccess);
 
-            player.sendMessage(createSuccessMessage("Player access created successfully for " + playerName + "!"));
-        } else {
-            player.sendMessage(createErrorMessage("Player already has access!"));
+                player.sendMessage(createSuccessMessage("Player access created successfully for " + playerName + "!"));
+            } else {
+                player.sendMessage(createErrorMessage("Player already has access!"));
+            }
+        });
+    }
+
+    // Completes the last entry of a comma separated list of servers and groups.
+    private List<String> suggestServers(String input) {
+        int split = input.lastIndexOf(',') + 1;
+        String head = input.substring(0, split);
+        String last = input.substring(split).toLowerCase(Locale.ROOT);
+
+        return TimeBasedAccess.getServerAccess().getScopeNames().stream()
+                .filter(scope -> scope.startsWith(last))
+                .map(scope -> head + scope)
+                .collect(Collectors.toList());
+    }
+
+    // Runs on every keystroke: completes a trailing number with units and keeps whatever already parses.
+    private List<String> suggestTime(String input) {
+        if (input.isEmpty()) {
+            return TIME_EXAMPLES;
+        }
+
+        List<String> suggestions = new ArrayList<>();
+        char last = input.charAt(input.length() - 1);
+        if (last >= '0' && last <= '9') {
+            for (String unit : TIME_UNITS) {
+                String candidate = input + unit;
+                if (TimeParser.isValid(candidate)) {
+                    suggestions.add(candidate);
+                }
+            }
+        } else if (TimeParser.isValid(input)) {
+            suggestions.add(input);
         }
+
+        if (suggestions.isEmpty()) {
+            for (String example : TIME_EXAMPLES) {
+                if (example.startsWith(input.toLowerCase())) {
+                    suggestions.add(example);
+                }
+            }
+        }
+        return suggestions;
     }
 
     private void handleRemoveCommand(Player player, String[] args) {
@@ -139,19 +229,177 @@ public class PlayerAccessCommand implements SimpleCommand {
         }
 
         String playerName = args[1];
-        UUID playerUUID = GeneralUtils.getUUIDFromName(playerName);
 
-        if (playerUUID == null) {
-            player.sendMessage(createErrorMessage("Player not found!"));
+        resolvePlayer(player, playerName, playerUUID -> {
+            if (TimeBasedAccess.getAccessManager().getPlayerAccess(playerUUID).isPresent()) {
+                TimeBasedAccess.getAccessManager().removePlayerAccess(playerUUID);
+                player.sendMessage(createSuccessMessage("Player access removed successfully for " + playerName + "!"));
+            } else {
+                player.sendMessage(createErrorMessage("Player does not have access!"));
+            }
+        });
+    }
+
+    private void handleReloadCommand(Player player) {
+        TimeBasedAccess.getInstance().reloadConfig();
+        player.sendMessage(createSuccessMessage("Configuration and messages reloaded!"));
+    }
+
+    private void handleImportCommand(Player player, String[] args) {
+        if (args.length != 2) {
+            sendTransferUsage(player, IMPORT_TYPE);
+            return;
+        }
+
+        AccessTransfer transfer = createTransfer();
+        Path file;
+        try {
+            file = transfer.resolve(args[1]);
+        } catch (IllegalArgumentException e) {
+            player.sendMessage(createErrorMessage(e.getMessage() + "!"));
+            return;
+        }
+
+        player.sendMessage(createSuccessMessage("Importing " + args[1] + "..."));
+        TimeBasedAccess.getIoExecutor().execute(() -> {
+            AccessTransfer.ImportResult result = transfer.importFrom(file);
+            if (result.getError() != null) {
+                TimeBasedAccess.getInstance().getLogger().error("Error importing accesses from {}: ", file, result.getError());
+                player.sendMessage(createErrorMessage("Import stopped after " + result.getImported() + " accesses ("
+                        + result.getUnresolved() + " unresolved, " + result.getInvalid() + " invalid): "
+                        + result.getError().getMessage()));
+                return;
+            }
+            player.sendMessage(createSuccessMessage("Imported " + result.getImported() + " accesses ("
+                    + result.getUnresolved() + " unresolved, " + result.getInvalid() + " invalid)!"));
+        });
+    }
+
+    private void handleExportCommand(Player player, String[] args) {
+        if (args.length != 2) {
+            sendTransferUsage(player, EXPORT_TYPE);
             return;
         }
 
-        if (TimeBasedAccess.getAccessManager().getPlayerAccess(playerUUID).isPresent()) {
-            TimeBasedAccess.getAccessManager().removePlayerAccess(playerUUID);
-            player.sendMessage(createSuccessMessage("Player access removed successfully for " + playerName + "!"));
-        } else {
-            player.sendMessage(createErrorMessage("Player does not have access!"));
+        AccessTransfer transfer = createTransfer();
+        Path file;
+        try {
+            file = transfer.resolve(args[1]);
+        } catch (IllegalArgumentException e) {
+            player.sendMessage(createErrorMessage(e.getMessage() + "!"));
+            return;
         }
+
+        player.sendMessage(createSuccessMessage("Exporting to " + args[1] + "..."));
+        TimeBasedAccess.getIoExecutor().execute(() -> {
+            try {
+                int exported = transfer.exportTo(file);
+                player.sendMessage(createSuccessMessage("Exported " + exported + " accesses to " + args[1] + "!"));
+            } catch (Exception e) {
+                TimeBasedAccess.getInstance().getLogger().error("Error exporting accesses to {}: ", file, e);
+                player.sendMessage(createErrorMessage("Export failed: " + e.getMessage()));
+            }
+        });
+    }
+
+    private void handleStatsCommand(Player player) {
+        AccessMetrics metrics = TimeBasedAccess.getMetrics();
+        AccessCache cache = TimeBasedAccess.getAccessManager().getCache();
+        CircuitBreaker circuitBreaker = TimeBasedAccess.getAccessManager().getCircuitBreaker();
+        StringBuilder text = new StringBuilder("<gradient:#ff5f6d:#ffc371><shadow:#000000><bold>Stats:</bold></shadow></gradient>");
+
+        statsLine(text, "Logins", String.format(Locale.ROOT, "%d valid, %d no access, %d expired, %d not started (avg %.2f ms)",
+                metrics.getLoginChecks(AccessStatus.VALID),
+                metrics.getLoginChecks(AccessStatus.NO_ACCESS),
+                metrics.getLoginChecks(AccessStatus.EXPIRED),
+                metrics.getLoginChecks(AccessStatus.NOT_STARTED),
+                metrics.getLoginCheckTimer().getAverageMillis()));
+
+        if (!metrics.getLoginRejections().isEmpty()) {
+            StringBuilder rejections = new StringBuilder();
+            metrics.getLoginRejections().forEach((reason, count) -> rejections.append(rejections.length() == 0 ? "" : ", ").append(count.sum()).append(' ').append(reason));
+            statsLine(text, "Retry asked", rejections.toString());
+        }
+
+        if (circuitBreaker != null) {
+            statsLine(text, "Database", String.format(Locale.ROOT, "circuit %s, %d trips, %d calls skipped, snapshot %d grants",
+                    circuitBreaker.getState().name().toLowerCase(Locale.ROOT),
+                    circuitBreaker.getTrips(),
+                    circuitBreaker.getShortCircuited(),
+                    TimeBasedAccess.getAccessManager().getSnapshot().size()));
+        }
+
+        statsLine(text, "Cache", String.format(Locale.ROOT, "%d/%d entries, %.1f%% hit rate",
+                cache.size(), cache.getMaxSize(), cache.getHitRate() * 100));
+
+        CompactAccessIndex index = TimeBasedAccess.getAccessManager().getIndex();
+        if (index != null) {
+            statsLine(text, "Index", String.format(Locale.ROOT, "%d grants, %d KiB%s",
+                    index.size(), index.getMemoryBytes() / 1024, index.isComplete() ? "" : ", loading"));
+        }
+
+        ServerAccessListener serverAccess = TimeBasedAccess.getServerAccess();
+        if (serverAccess.getRestrictedCount() > 0 || serverAccess.getDeniedCount() > 0) {
+            statsLine(text, "Servers", String.format(Locale.ROOT, "%d players limited to some servers, %d switches denied",
+                    serverAccess.getRestrictedCount(), serverAccess.getDeniedCount()));
+        }
+
+        for (Map.Entry<String, OperationTimer> entry : metrics.getQueryTimers().entrySet()) {
+            OperationTimer timer = entry.getValue();
+            if (timer.getCount() > 0) {
+                statsLine(text, "DB " + entry.getKey(), timerSummary(timer));
+            }
+        }
+
+        if (metrics.getPoolStats() != null) {
+            statsLine(text, "Pool", String.format(Locale.ROOT, "%d active, %d idle, %d waiting (avg wait %.2f ms, %d timeouts)",
+                    metrics.getPoolStats().getActiveConnections(),
+                    metrics.getPoolStats().getIdleConnections(),
+                    metrics.getPoolStats().getPendingThreads(),
+                    metrics.getPoolAcquireTimer().getAverageMillis(),
+                    metrics.getPoolAcquireTimer().getErrors()));
+        }
+
+        for (Map.Entry<String, OperationTimer> entry : metrics.getMojangTimers().entrySet()) {
+            statsLine(text, "Mojang " + entry.getKey(), timerSummary(entry.getValue()));
+        }
+
+        StringBuilder kicks = new StringBuilder();
+        metrics.getKicks().forEach((reason, count) -> kicks.append(kicks.length() == 0 ? "" : ", ").append(count.sum()).append(' ').append(reason));
+        statsLine(text, "Kicks", kicks.length() == 0 ? "none" : kicks.toString());
+
+        player.sendMessage(TimeBasedAccess.getPrefix().append(MINI_MESSAGE.deserialize(text.toString())));
+    }
+
+    private void statsLine(StringBuilder text, String label, String value) {
+        text.append("\n<gradient:#89f7fe:#66a6ff>").append(label).append(":</gradient> <gray>")
+                .append(MINI_MESSAGE.escapeTags(value)).append("</gray>");
+    }
+
+    private String timerSummary(OperationTimer timer) {
+        return String.format(Locale.ROOT, "%d calls, avg %.2f ms, %d errors", timer.getCount(), timer.getAverageMillis(), timer.getErrors());
+    }
+
+    private AccessTransfer createTransfer() {
+        return new AccessTransfer(TimeBasedAccess.getAccessManager(), TimeBasedAccess.getUUIDResolver(),
+                TimeBasedAccess.getInstance().getDataDirectory(), TRANSFER_CHUNK_SIZE, TimeBasedAccess.getZone());
+    }
+
+    private void resolvePlayer(Player player, String playerName, Consumer<UUID> action) {
+        TimeBasedAccess.getUUIDResolver().resolve(playerName).whenCompleteAsync((playerUUID, error) -> {
+            if (error != null) {
+                TimeBasedAccess.getInstance().getLogger().warn("Could not resolve UUID for {}: {}", playerName, error.getMessage());
+                player.sendMessage(createErrorMessage("Could not look up player, please try again later!"));
+                return;
+            }
+
+            if (playerUUID.isEmpty()) {
+                player.sendMessage(createErrorMessage("Player not found!"));
+                return;
+            }
+
+            action.accept(playerUUID.get());
+        }, TimeBasedAccess.getIoExecutor());
     }
 
     private boolean isPlayer(CommandSource source) {
@@ -173,8 +421,12 @@ public class PlayerAccessCommand implements SimpleCommand {
     private void sendUsage(Player player) {
         player.sendMessage(TimeBasedAccess.getPrefix().append(MINI_MESSAGE.deserialize(
                 "<gradient:#ff5f6d:#ffc371><shadow:#000000><bold>Usage:</bold></shadow></gradient>\n" +
-                        "<gradient:#89f7fe:#66a6ff><italic>/playerAccess create</italic></gradient> <gradient:#fffacd:#ffdd57><playerName></gradient> <gradient:#c2ffd8:#61a6ab><time></gradient> <gradient:#fbc2eb:#a6c1ee><permaAccess></gradient>\n" +
-                        "<gradient:#89f7fe:#66a6ff><italic>/playerAccess remove</italic></gradient> <gradient:#fffacd:#ffdd57><playerName></gradient>"
+                        "<gradient:#89f7fe:#66a6ff><italic>/playerAccess create</italic></gradient> <gradient:#fffacd:#ffdd57><playerName></gradient> <gradient:#c2ffd8:#61a6ab><time></gradient> <gradient:#fbc2eb:#a6c1ee><permaAccess></gradient> <gray>[servers]</gray>\n" +
+                        "<gradient:#89f7fe:#66a6ff><italic>/playerAccess remove</italic></gradient> <gradient:#fffacd:#ffdd57><playerName></gradient>\n" +
+                        "<gradient:#89f7fe:#66a6ff><italic>/playerAccess reload</italic></gradient>\n" +
+                        "<gradient:#89f7fe:#66a6ff><italic>/playerAccess import</italic></gradient> <gradient:#fffacd:#ffdd57><file></gradient>\n" +
+                        "<gradient:#89f7fe:#66a6ff><italic>/playerAccess export</italic></gradient> <gradient:#fffacd:#ffdd57><file></gradient>\n" +
+                        "<gradient:#89f7fe:#66a6ff><italic>/playerAccess stats</italic></gradient>"
         )));
     }
 
@@ -184,7 +436,8 @@ public class PlayerAccessCommand implements SimpleCommand {
                         "<gradient:#89f7fe:#66a6ff><italic>/playerAccess create</italic></gradient> " +
                         "<gradient:#fffacd:#ffdd57><playerName></gradient> " +
                         "<gradient:#c2ffd8:#61a6ab><time></gradient> " +
-                        "<gradient:#fbc2eb:#a6c1ee><permaAccess></gradient>"
+                        "<gradient:#fbc2eb:#a6c1ee><permaAccess></gradient> " +
+                        "<gray>[servers]</gray>"
         )));
     }
 
@@ -196,7 +449,15 @@ public class PlayerAccessCommand implements SimpleCommand {
         )));
     }
 
+    private void sendTransferUsage(Player player, String type) {
+        player.sendMessage(TimeBasedAccess.getPrefix().append(MINI_MESSAGE.deserialize(
+                "<gradient:#ff5f6d:#ffc371><shadow:#000000><bold>Usage:</bold></shadow></gradient> " +
+                        "<gradient:#89f7fe:#66a6ff><italic>/playerAccess " + type + "</italic></gradient> " +
+                        "<gradient:#fffacd:#ffdd57><file></gradient>"
+        )));
+    }
+
     private void sendInvalidTypeMessage(Player player) {
-        player.sendMessage(createErrorMessage("Invalid command type! Use 'create' or 'remove'."));
+        player.sendMessage(createErrorMessage("Invalid command type! Use 'create', 'remove', 'reload', 'import', 'export' or 'stats'."));
     }
 }
\ No newline at end of file
@@ -3,50 +3,124 @@ package de.mecrytv.timeBasedAccess.database;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import de.mecrytv.timeBasedAccess.TimeBasedAccess;
+import de.mecrytv.timeBasedAccess.metrics.HikariMetricsTracker;
 import org.spongepowered.configurate.ConfigurationNode;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
-public class DatabaseManager {
+public final class DatabaseManager {
+
+    // Driver defaults; anything under mysql.properties overrides or extends them.
+    private static final Map<String, String> DEFAULT_PROPERTIES = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_PROPERTIES.put("autoReconnect", "true");
+        DEFAULT_PROPERTIES.put("useSSL", "false");
+        DEFAULT_PROPERTIES.put("rewriteBatchedStatements", "true");
+        DEFAULT_PROPERTIES.put("cachePrepStmts", "true");
+        DEFAULT_PROPERTIES.put("prepStmtCacheSize", "250");
+        DEFAULT_PROPERTIES.put("prepStmtCacheSqlLimit", "2048");
+        DEFAULT_PROPERTIES.put("useServerPrepStmts", "true");
+    }
 
     private HikariDataSource dataSource;
+    private HikariDataSource readDataSource;
 
     public DatabaseManager() {
         ConfigurationNode cfg = TimeBasedAccess.getInstance().getConfig().node("mysql");
 
-        String host = cfg.node("host").getString("localhost");
-        int port = cfg.node("port").getInt(3306);
-        String username = cfg.node("user").getString("username");
-        String password = cfg.node("password").getString("password");
-        String database = cfg.node("database").getString("database");
+        dataSource = createDataSource(cfg, cfg, "tbaccess-primary", false);
+        verify(dataSource, "MySQL-Initialisierung fehlgeschlagen");
+
+        ConfigurationNode replica = cfg.node("replica");
+        if (replica.node("enabled").getBoolean(false)) {
+            readDataSource = createDataSource(replica, cfg, "tbaccess-replica", true);
+            verify(readDataSource, "MySQL-Replica-Initialisierung fehlgeschlagen");
+            TimeBasedAccess.getInstance().getLogger().info("Read queries use the replica at {}:{}",
+                    replica.node("host").getString(cfg.node("host").getString("localhost")),
+                    replica.node("port").getInt(cfg.node("port").getInt(3306)));
+        }
+    }
+
+    // Replica settings fall back to the primary ones, so a replica block only needs what differs.
+    private HikariDataSource createDataSource(ConfigurationNode cfg, ConfigurationNode primary, String poolName, boolean readOnly) {
+        String host = cfg.node("host").getString(primary.node("host").getString("localhost"));
+        int port = cfg.node("port").getInt(primary.node("port").getInt(3306));
+        String username = cfg.node("user").getString(primary.node("user").getString("username"));
+        String password = cfg.node("password").getString(primary.node("password").getString("password"));
+        String database = cfg.node("database").getString(primary.node("database").getString("database"));
+
+        ConfigurationNode pool = cfg.node("pool");
+        ConfigurationNode primaryPool = primary.node("pool");
 
         HikariConfig mysqlConf = new HikariConfig();
 
+        mysqlConf.setPoolName(poolName);
         mysqlConf.setUsername(username);
         mysqlConf.setPassword(password);
+        mysqlConf.setReadOnly(readOnly);
 
-        mysqlConf.setConnectionTimeout(2000);
-        mysqlConf.setMaximumPoolSize(10);
+        int maximumPoolSize = pool.node("maximum-pool-size").getInt(primaryPool.node("maximum-pool-size").getInt(10));
+        mysqlConf.setMaximumPoolSize(maximumPoolSize);
+        mysqlConf.setMinimumIdle(pool.node("minimum-idle").getInt(primaryPool.node("minimum-idle").getInt(maximumPoolSize)));
+        mysqlConf.setConnectionTimeout(pool.node("connection-timeout-millis").getLong(primaryPool.node("connection-timeout-millis").getLong(2000)));
+        mysqlConf.setIdleTimeout(pool.node("idle-timeout-millis").getLong(primaryPool.node("idle-timeout-millis").getLong(600000)));
+        mysqlConf.setMaxLifetime(pool.node("max-lifetime-millis").getLong(primaryPool.node("max-lifetime-millis").getLong(1800000)));
         mysqlConf.setDriverClassName("com.mysql.cj.jdbc.Driver");
 
-        String jdbcURL = "jdbc:mysql://" + host + ":" + port + "/" + database + "?autoReconnect=true&serverTimezone=Europe/Berlin&useSSL=false";
-        mysqlConf.setJdbcUrl(jdbcURL);
+        Map<String, String> properties = new LinkedHashMap<>(DEFAULT_PROPERTIES);
+        readProperties(primary.node("properties"), properties);
+        if (cfg != primary) {
+            readProperties(cfg.node("properties"), properties);
+        }
+        properties.forEach(mysqlConf::addDataSourceProperty);
+
+        // Only the primary feeds the pool metrics, they have no per-pool label.
+        if (!readOnly) {
+            mysqlConf.setMetricsTrackerFactory(new HikariMetricsTracker(TimeBasedAccess.getMetrics()));
+        }
+
+        mysqlConf.setJdbcUrl("jdbc:mysql://" + host + ":" + port + "/" + database);
+
+        return new HikariDataSource(mysqlConf);
+    }
 
-        dataSource = new HikariDataSource(mysqlConf);
+    private static void readProperties(ConfigurationNode node, Map<String, String> properties) {
+        node.childrenMap().forEach((key, value) -> {
+            if (value.getString() != null) {
+                properties.put(String.valueOf(key), value.getString());
+            }
+        });
+    }
 
+    private void verify(HikariDataSource source, String message) {
         try {
-            Connection connection = getConnection();
+            Connection connection = source.getConnection();
             closeConnection(connection);
         } catch (SQLException e) {
-            throw new IllegalStateException("MySQL-Initialisierung fehlgeschlagen", e);
+            shutDown();
+            throw new IllegalStateException(message, e);
         }
     }
 
+    // Hikari bounds concurrent queries at maximum-pool-size and every wait at connection-timeout-millis; callers on
+    // virtual threads park while they wait for a connection.
     public Connection getConnection() throws SQLException {
         return dataSource.getConnection();
     }
 
+    // Replica lag is acceptable here: callers only read, and their own writes are served from the access cache.
+    public Connection getReadConnection() throws SQLException {
+        return readDataSource != null ? readDataSource.getConnection() : dataSource.getConnection();
+    }
+
+    public boolean hasReplica() {
+        return readDataSource != null;
+    }
+
     public void closeConnection(Connection connection) {
         try {
             if (connection != null && !connection.isClosed()) {
@@ -58,6 +132,11 @@ public class DatabaseManager {
     }
 
     public void shutDown() {
-        dataSource.close();
+        if (readDataSource != null) {
+            readDataSource.close();
+        }
+        if (dataSource != null) {
+            dataSource.close();
+        }
     }
 }
@@ -0,0 +1,139 @@
+package de.mecrytv.timeBasedAccess.database.access;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class AccessCache {
+
+    private final int maxSize;
+    private final LinkedHashMap<UUID, Optional<PlayerAccess>> entries;
+    // Not a monitor: lookups run on virtual threads, and blocking on a monitor pins them to their carrier thread.
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public AccessCache(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Optional<PlayerAccess>> eldest) {
+                if (size() > AccessCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Returns null on a miss; an empty Optional is a cached "no access" entry.
+    public Optional<PlayerAccess> getIfPresent(UUID playerUUID) {
+        Optional<PlayerAccess> cached;
+        lock.lock();
+        try {
+            cached = entries.get(playerUUID);
+        } finally {
+            lock.unlock();
+        }
+
+        if (cached == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return cached;
+    }
+
+    public void put(UUID playerUUID, Optional<PlayerAccess> access) {
+        lock.lock();
+        try {
+            entries.put(playerUUID, access);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void putIfAbsent(UUID playerUUID, Optional<PlayerAccess> access) {
+        lock.lock();
+        try {
+            entries.putIfAbsent(playerUUID, access);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void replaceIfPresent(UUID playerUUID, Optional<PlayerAccess> access) {
+        lock.lock();
+        try {
+            entries.replace(playerUUID, access);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(UUID playerUUID) {
+        lock.lock();
+        try {
+            entries.remove(playerUUID);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateExpired(long cutoffMillis) {
+        lock.lock();
+        try {
+            entries.values().removeIf(access -> access.isPresent()
+                    && !access.get().isPermaAccess()
+                    && access.get().getAccessEndMillis() < cutoffMillis);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double getHitRate() {
+        long hitCount = getHits();
+        long total = hitCount + getMisses();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+}
@@ -0,0 +1,14 @@
+package de.mecrytv.timeBasedAccess.database.access;
+
+import java.util.UUID;
+
+public interface AccessChangeListener {
+
+    void onAccessUpdated(PlayerAccess playerAccess);
+
+    void onAccessRemoved(UUID playerUUID);
+
+    // Bulk cleanup deletes without reporting individual players; every non-permanent grant that ended before cutoffMillis is gone.
+    default void onExpiredRemoved(long cutoffMillis) {
+    }
+}
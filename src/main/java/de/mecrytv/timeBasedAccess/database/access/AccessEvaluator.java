@@ -0,0 +1,26 @@
+package de.mecrytv.timeBasedAccess.database.access;
+
+// Pure access decision without side effects, shared by the login path, the expiry scheduler and the benchmarks.
+public class AccessEvaluator {
+
+    public static AccessStatus evaluate(PlayerAccess playerAccess, long nowMillis) {
+        if (playerAccess == null) {
+            return AccessStatus.NO_ACCESS;
+        }
+
+        if (playerAccess.isPermaAccess()) {
+            return AccessStatus.VALID;
+        }
+
+        // The end is exclusive, matching the expiry scheduler, which fires once the clock reaches it.
+        if (nowMillis >= playerAccess.getAccessEndMillis()) {
+            return AccessStatus.EXPIRED;
+        }
+
+        if (nowMillis < playerAccess.getAccessStartMillis()) {
+            return AccessStatus.NOT_STARTED;
+        }
+
+        return AccessStatus.VALID;
+    }
+}
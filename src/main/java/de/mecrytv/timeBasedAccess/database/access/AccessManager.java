@@ -1,122 +1,740 @@
 package de.mecrytv.timeBasedAccess.database.access;
 
-import de.mecrytv.timeBasedAccess.TimeBasedAccess;
+import de.mecrytv.timeBasedAccess.database.store.AccessChange;
+import de.mecrytv.timeBasedAccess.database.store.AccessMutation;
+import de.mecrytv.timeBasedAccess.database.store.AccessOverloadedException;
+import de.mecrytv.timeBasedAccess.database.store.AccessStore;
+import de.mecrytv.timeBasedAccess.database.store.AccessStoreException;
+import de.mecrytv.timeBasedAccess.database.store.AccessUnavailableException;
+import de.mecrytv.timeBasedAccess.metrics.AccessMetrics;
+import de.mecrytv.timeBasedAccess.metrics.OperationTimer;
+import de.mecrytv.timeBasedAccess.utils.AccessClock;
+import org.slf4j.Logger;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
 
 public class AccessManager {
 
-    public AccessManager() {
-        try {
-            Connection connection = TimeBasedAccess.getDatabaseManager().getConnection();
+    private static final int INDEX_REPLAY_BATCH = 1000;
+
+    private final AccessStore store;
+    private final Logger logger;
+    private final AccessCache cache;
+    private final AccessMetrics metrics;
+    private final AccessClock clock;
+    private final OperationTimer findTimer;
+    private final OperationTimer findAllTimer;
+    private final OperationTimer findNameTimer;
+    private final OperationTimer findNamesTimer;
+    private final OperationTimer saveTimer;
+    private final OperationTimer deleteTimer;
+    private final OperationTimer importTimer;
+    private final OperationTimer pollTimer;
+    private final OperationTimer cleanupTimer;
+    private final OperationTimer warmupTimer;
+    private final List<AccessChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    private AccessWriteQueue writeQueue;
+    private AdmissionGate admissionGate;
+    private CircuitBreaker circuitBreaker;
+    private AccessSnapshot snapshot;
+    private CompactAccessIndex index;
+    private final Map<UUID, CompletableFuture<Optional<PlayerAccess>>> inFlight = new ConcurrentHashMap<>();
+    // The latest write-behind mutation per player until its batch is stored; reads see it instead of the older row.
+    private final Map<UUID, AccessMutation> pendingWrites = new ConcurrentHashMap<>();
+    private final LongAdder singleFlightJoins = new LongAdder();
 
-            String sql = "CREATE TABLE IF NOT EXISTS `tbaccess` (`ID` INT AUTO_INCREMENT, `playerUUID` VARCHAR(36) NOT NULL UNIQUE, `playerName` VARCHAR(16) NOT NULL, `accessStartTime` DATETIME NOT NULL, `accessEndTime` DATETIME NOT NULL, `permaAccess` BOOLEAN NOT NULL DEFAULT FALSE, PRIMARY KEY (`ID`)) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;";
+    public AccessManager(AccessStore store, int cacheSize, AccessMetrics metrics, Logger logger) {
+        this(store, cacheSize, metrics, AccessClock.system(), logger);
+    }
 
-            PreparedStatement statement = connection.prepareStatement(sql);
-            statement.executeUpdate();
-            statement.close();
+    public AccessManager(AccessStore store, int cacheSize, AccessMetrics metrics, AccessClock clock, Logger logger) {
+        this.store = store;
+        this.logger = logger;
+        this.cache = new AccessCache(cacheSize);
+        this.metrics = metrics;
+        this.clock = clock;
+        this.findTimer = metrics.queryTimer("getPlayerAccess");
+        this.findAllTimer = metrics.queryTimer("getPlayerAccesses");
+        this.findNameTimer = metrics.queryTimer("findPlayerUUIDByName");
+        this.findNamesTimer = metrics.queryTimer("findPlayerUUIDsByNames");
+        this.saveTimer = metrics.queryTimer("createPlayerAccess");
+        this.deleteTimer = metrics.queryTimer("removePlayerAccess");
+        this.importTimer = metrics.queryTimer("importPlayerAccesses");
+        this.pollTimer = metrics.queryTimer("pollChanges");
+        this.cleanupTimer = metrics.queryTimer("cleanupExpiredAccesses");
+        this.warmupTimer = metrics.queryTimer("loadActivePage");
 
-            TimeBasedAccess.getDatabaseManager().closeConnection(connection);
+        try {
+            store.init();
         } catch (Exception e) {
-            TimeBasedAccess.getInstance().getLogger().error("Error initializing AccessManager: ", e);
+            logger.error("Error initializing AccessManager: ", e);
         }
     }
 
-    public PlayerAccess createPlayerAccess(PlayerAccess playerAccess) {
-        try (Connection connection = TimeBasedAccess.getDatabaseManager().getConnection();
-             PreparedStatement statement = connection.prepareStatement(
-                     "INSERT INTO tbaccess (playerUUID, playerName, accessStartTime, accessEndTime, permaAccess) VALUES (?, ?, ?, ?, ?) " +
-                             "ON DUPLICATE KEY UPDATE playerName = VALUES(playerName), accessStartTime = VALUES(accessStartTime), " +
-                             "accessEndTime = VALUES(accessEndTime), permaAccess = VALUES(permaAccess)")) {
+    public void enableWriteBehind(int maxBatchSize, long flushIntervalMillis) {
+        if (writeQueue == null) {
+            writeQueue = new AccessWriteQueue(store, logger, maxBatchSize, flushIntervalMillis, this::writesStored,
+                    this::writesFailed, metrics.queryTimer("writeBehindBatch"));
+        }
+    }
 
-            statement.setString(1, playerAccess.getPlayerUUID().toString());
-            statement.setString(2, playerAccess.getPlayerName());
-            statement.setObject(3, playerAccess.getAccessStartTime());
-            statement.setObject(4, playerAccess.getAccessEndTime());
-            statement.setBoolean(5, playerAccess.isPermaAccess());
+    public void enableAdmissionControl(int maxConcurrent, int maxQueue, long queueTimeoutMillis) {
+        admissionGate = new AdmissionGate(maxConcurrent, maxQueue, queueTimeoutMillis);
+    }
 
-            statement.executeUpdate();
+    public void enableDegradedMode(CircuitBreaker circuitBreaker, AccessSnapshot snapshot) {
+        this.circuitBreaker = circuitBreaker;
+        this.snapshot = snapshot;
+        snapshot.load();
+    }
 
-        } catch (Exception e) {
-            TimeBasedAccess.getInstance().getLogger().error("Error creating PlayerAccess: ", e);
+    // "full" cache mode: every grant is mirrored in a compact index, so players without a grant never reach the store.
+    public void enableFullIndex() {
+        if (index == null) {
+            index = new CompactAccessIndex();
+        }
+    }
+
+    // sinceVersion is the change version read before the load; changes after it are replayed before the index is trusted.
+    public int loadFullIndex(long sinceVersion) throws AccessStoreException {
+        long start = System.nanoTime();
+        store.forEach(index::putIfAbsent);
+        if (sinceVersion < 0) {
+            logger.warn("Access change version unknown, players missing from the index are still looked up in the store");
+            return index.size();
+        }
+
+        // Grants created or removed on any proxy while the store was read; repeats until nothing newer is left.
+        long version = sinceVersion;
+        List<AccessChange> changes;
+        while (!(changes = store.changesSince(version, INDEX_REPLAY_BATCH)).isEmpty()) {
+            for (AccessChange change : changes) {
+                if (change.isRemoval()) {
+                    index.remove(change.getPlayerUUID());
+                } else {
+                    index.put(change.getAccess());
+                }
+                version = change.getVersion();
+            }
         }
+        index.markComplete();
+        logger.info("Access index holds {} grants in {} KiB, loaded in {} ms", index.size(), index.getMemoryBytes() / 1024,
+                (System.nanoTime() - start) / 1_000_000);
+        return index.size();
+    }
+
+    public PlayerAccess createPlayerAccess(PlayerAccess playerAccess) {
+        createPlayerAccessAsync(playerAccess);
         return playerAccess;
     }
 
+    // With write-behind enabled the cache is updated immediately and the future completes once the batch is stored.
+    public CompletableFuture<PlayerAccess> createPlayerAccessAsync(PlayerAccess playerAccess) {
+        if (writeQueue != null) {
+            AccessMutation mutation = AccessMutation.save(playerAccess);
+            pendingWrites.put(playerAccess.getPlayerUUID(), mutation);
+            applyUpdate(playerAccess);
+            return writeQueue.submit(mutation).thenApply(result -> playerAccess);
+        }
+
+        long start = System.nanoTime();
+        try {
+            checkAvailable();
+            store.save(playerAccess);
+            storeSucceeded();
+        } catch (Exception e) {
+            storeFailed(e);
+            saveTimer.recordError();
+            cache.invalidate(playerAccess.getPlayerUUID());
+            logger.error("Error creating PlayerAccess: ", e);
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            saveTimer.record(System.nanoTime() - start);
+        }
+
+        applyUpdate(playerAccess);
+        return CompletableFuture.completedFuture(playerAccess);
+    }
+
     public Optional<PlayerAccess> getPlayerAccess(UUID playerUUID) {
-        try (Connection connection = TimeBasedAccess.getDatabaseManager().getConnection();
-             PreparedStatement statement = connection.prepareStatement("SELECT * FROM tbaccess WHERE playerUUID = ?")) {
-
-            statement.setString(1, playerUUID.toString());
-
-            try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next()) {
-                    PlayerAccess access = new PlayerAccess(
-                            UUID.fromString(resultSet.getString("playerUUID")),
-                            resultSet.getString("playerName"),
-                            resultSet.getObject("accessStartTime", LocalDateTime.class),
-                            resultSet.getObject("accessEndTime", LocalDateTime.class),
-                            resultSet.getBoolean("permaAccess")
-                    );
-                    return Optional.of(access);
-                }
+        try {
+            return lookup(playerUUID, null);
+        } catch (AccessStoreException e) {
+            logger.error("Error retrieving PlayerAccess: ", e);
+        }
+
+        return Optional.empty();
+    }
+
+    // Login path: passes the admission gate and reports failures instead of turning them into "no access".
+    public Optional<PlayerAccess> loadPlayerAccess(UUID playerUUID) throws AccessStoreException {
+        return lookup(playerUUID, admissionGate);
+    }
+
+    // Concurrent misses for the same player share one store round trip.
+    private Optional<PlayerAccess> lookup(UUID playerUUID, AdmissionGate gate) throws AccessStoreException {
+        Optional<PlayerAccess> cached = cache.getIfPresent(playerUUID);
+        if (cached != null) {
+            return cached;
+        }
+        if (isKnownAbsent(playerUUID)) {
+            return Optional.empty();
+        }
+
+        CompletableFuture<Optional<PlayerAccess>> flight = new CompletableFuture<>();
+        CompletableFuture<Optional<PlayerAccess>> leader = inFlight.putIfAbsent(playerUUID, flight);
+        if (leader != null) {
+            singleFlightJoins.increment();
+            return await(leader);
+        }
+
+        try {
+            Optional<PlayerAccess> access = gate != null ? gate.call(() -> find(playerUUID)) : find(playerUUID);
+            flight.complete(access);
+            return access;
+        } catch (AccessStoreException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(playerUUID, flight);
+        }
+    }
+
+    private Optional<PlayerAccess> find(UUID playerUUID) throws AccessStoreException {
+        // Checked before the breaker: a half-open probe permit must always end in onSuccess() or onFailure().
+        Optional<PlayerAccess> pending = pendingValue(playerUUID);
+        if (pending != null) {
+            return pending;
+        }
+
+        if (circuitBreaker != null && !circuitBreaker.allowRequest()) {
+            return fromSnapshot(playerUUID);
+        }
+
+        long start = System.nanoTime();
+        try {
+            Optional<PlayerAccess> access = store.find(playerUUID);
+            storeSucceeded();
+            // A write queued while the row was read is newer than the row.
+            pending = pendingValue(playerUUID);
+            if (pending != null) {
+                return pending;
             }
+            cache.putIfAbsent(playerUUID, access);
+            return access;
+        } catch (AccessStoreException e) {
+            storeFailed(e);
+            findTimer.recordError();
+            throw e;
+        } catch (RuntimeException e) {
+            storeFailed(e);
+            findTimer.recordError();
+            throw new AccessStoreException("Unexpected error reading access", e);
+        } finally {
+            findTimer.record(System.nanoTime() - start);
+        }
+    }
 
+    private static Optional<PlayerAccess> await(CompletableFuture<Optional<PlayerAccess>> flight) throws AccessStoreException {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof AccessStoreException) {
+                throw (AccessStoreException) e.getCause();
+            }
+            throw new AccessStoreException("Shared lookup failed", e.getCause());
+        }
+    }
+
+    public Optional<UUID> findPlayerUUIDByName(String playerName) {
+        long start = System.nanoTime();
+        try {
+            return store.findUUIDByName(playerName);
         } catch (Exception e) {
-            TimeBasedAccess.getInstance().getLogger().error("Error retrieving PlayerAccess: ", e);
+            findNameTimer.recordError();
+            logger.error("Error looking up player name: ", e);
+        } finally {
+            findNameTimer.record(System.nanoTime() - start);
         }
 
         return Optional.empty();
     }
 
+    public Map<String, UUID> findPlayerUUIDsByNames(Collection<String> playerNames) {
+        if (playerNames.isEmpty()) {
+            return Map.of();
+        }
+
+        long start = System.nanoTime();
+        try {
+            return store.findUUIDsByNames(playerNames);
+        } catch (Exception e) {
+            findNamesTimer.recordError();
+            logger.error("Error looking up player names: ", e);
+        } finally {
+            findNamesTimer.record(System.nanoTime() - start);
+        }
+
+        return Map.of();
+    }
+
+    public Map<UUID, PlayerAccess> getPlayerAccesses(Collection<UUID> playerUUIDs) {
+        try {
+            return loadPlayerAccesses(playerUUIDs);
+        } catch (AccessStoreException e) {
+            logger.error("Error retrieving PlayerAccesses: ", e);
+            return Map.of();
+        }
+    }
+
+    // Reports failures so callers can tell "no grant" apart from "could not ask".
+    public Map<UUID, PlayerAccess> loadPlayerAccesses(Collection<UUID> playerUUIDs) throws AccessStoreException {
+        Map<UUID, PlayerAccess> result = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+
+        for (UUID playerUUID : playerUUIDs) {
+            Optional<PlayerAccess> cached = cache.getIfPresent(playerUUID);
+            if (cached == null) {
+                cached = pendingValue(playerUUID);
+            }
+            if (cached == null && !isKnownAbsent(playerUUID)) {
+                missing.add(playerUUID);
+            } else if (cached != null) {
+                cached.ifPresent(access -> result.put(playerUUID, access));
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        if (circuitBreaker != null && !circuitBreaker.allowRequest()) {
+            for (UUID playerUUID : missing) {
+                fromSnapshot(playerUUID).ifPresent(access -> result.put(playerUUID, access));
+            }
+            return result;
+        }
+
+        long start = System.nanoTime();
+        try {
+            Map<UUID, PlayerAccess> loaded = store.findAll(missing);
+            storeSucceeded();
+            for (UUID playerUUID : missing) {
+                Optional<PlayerAccess> access = pendingValue(playerUUID);
+                if (access == null) {
+                    access = Optional.ofNullable(loaded.get(playerUUID));
+                    cache.putIfAbsent(playerUUID, access);
+                }
+                access.ifPresent(value -> result.put(playerUUID, value));
+            }
+        } catch (AccessStoreException e) {
+            storeFailed(e);
+            findAllTimer.recordError();
+            throw e;
+        } catch (RuntimeException e) {
+            storeFailed(e);
+            findAllTimer.recordError();
+            throw new AccessStoreException("Unexpected error reading accesses", e);
+        } finally {
+            findAllTimer.record(System.nanoTime() - start);
+        }
+
+        return result;
+    }
+
+    // Used by AccessWarmup before logins are accepted, so it does not go through the admission gate.
+    public List<PlayerAccess> loadActivePage(long nowMillis, UUID after, UUID upTo, int limit) throws AccessStoreException {
+        long start = System.nanoTime();
+        try {
+            return store.findActivePage(nowMillis, after, upTo, limit);
+        } catch (AccessStoreException e) {
+            warmupTimer.recordError();
+            throw e;
+        } finally {
+            warmupTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    // Never replaces an entry that a login or a write cached in the meantime.
+    public void preload(List<PlayerAccess> playerAccesses) {
+        for (PlayerAccess playerAccess : playerAccesses) {
+            if (!pendingWrites.containsKey(playerAccess.getPlayerUUID())) {
+                cache.putIfAbsent(playerAccess.getPlayerUUID(), Optional.of(playerAccess));
+            }
+        }
+    }
+
+    // Null if no write-behind mutation for the player is waiting to be stored.
+    private Optional<PlayerAccess> pendingValue(UUID playerUUID) {
+        AccessMutation pending = pendingWrites.get(playerUUID);
+        return pending != null ? Optional.ofNullable(pending.getAccess()) : null;
+    }
+
+    // A later write for the same player keeps its overlay entry until its own batch is stored.
+    private void writesStored(List<AccessMutation> mutations) {
+        for (AccessMutation mutation : mutations) {
+            pendingWrites.remove(mutation.getPlayerUUID(), mutation);
+        }
+    }
+
+    // Cache, index and listeners already saw the failed writes; they are put back to what the store holds.
+    private void writesFailed(List<AccessMutation> mutations) {
+        List<UUID> reverted = new ArrayList<>();
+        for (AccessMutation mutation : mutations) {
+            if (pendingWrites.remove(mutation.getPlayerUUID(), mutation)) {
+                cache.invalidate(mutation.getPlayerUUID());
+                reverted.add(mutation.getPlayerUUID());
+            }
+        }
+        if (reverted.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, PlayerAccess> stored;
+        try {
+            stored = store.findAll(reverted);
+        } catch (Exception e) {
+            logger.error("Could not re-read {} grants after a failed write, they are loaded again on the next lookup: ",
+                    reverted.size(), e);
+            return;
+        }
+
+        for (UUID playerUUID : reverted) {
+            if (pendingWrites.containsKey(playerUUID)) {
+                continue;
+            }
+            PlayerAccess access = stored.get(playerUUID);
+            if (access != null) {
+                applyUpdate(access);
+            } else {
+                applyRemoval(playerUUID, true);
+            }
+        }
+    }
+
+    // Misses are not put into the LRU cache, so a flood of unknown players cannot push out the real ones.
+    private boolean isKnownAbsent(UUID playerUUID) {
+        return index != null && index.isComplete() && !index.contains(playerUUID);
+    }
+
+    // Snapshot answers are never cached, so nothing stale is left behind once the store is back.
+    private Optional<PlayerAccess> fromSnapshot(UUID playerUUID) throws AccessUnavailableException {
+        if (snapshot == null || !snapshot.isAvailable()) {
+            throw new AccessUnavailableException("Access store unavailable and no snapshot loaded");
+        }
+        return snapshot.get(playerUUID);
+    }
+
+    private void checkAvailable() throws AccessUnavailableException {
+        if (circuitBreaker != null && !circuitBreaker.allowRequest()) {
+            throw new AccessUnavailableException("Access store unavailable, circuit open");
+        }
+    }
+
+    private void storeSucceeded() {
+        if (circuitBreaker != null) {
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    // Rejections decided before reaching the store say nothing about its health.
+    private void storeFailed(Exception e) {
+        if (circuitBreaker != null && !(e instanceof AccessUnavailableException) && !(e instanceof AccessOverloadedException)) {
+            circuitBreaker.onFailure();
+        }
+    }
+
+    // Keeps the last good snapshot while the store is failing; returns -1 if nothing was written.
+    public int writeSnapshot() {
+        if (snapshot == null || isDegraded()) {
+            return -1;
+        }
+
+        Map<UUID, PlayerAccess> grants = new HashMap<>();
+        try {
+            store.forEach(access -> grants.put(access.getPlayerUUID(), access));
+            snapshot.replace(grants);
+            return grants.size();
+        } catch (AccessStoreException e) {
+            logger.warn("Could not read grants for the access snapshot: {}", e.getMessage());
+        } catch (IOException e) {
+            logger.warn("Could not write the access snapshot: {}", e.getMessage());
+        }
+        return -1;
+    }
+
+    public boolean isDegraded() {
+        return circuitBreaker != null && circuitBreaker.isOpen();
+    }
+
     public boolean removePlayerAccess(UUID playerUUID) {
-        try (Connection connection = TimeBasedAccess.getDatabaseManager().getConnection();
-             PreparedStatement statement = connection.prepareStatement("DELETE FROM tbaccess WHERE playerUUID = ?")) {
+        if (writeQueue != null) {
+            boolean known = getPlayerAccess(playerUUID).isPresent();
+            writeQueue.submit(queueRemoval(playerUUID, known));
+            return known;
+        }
 
-            statement.setString(1, playerUUID.toString());
-            int rowsAffected = statement.executeUpdate();
+        return removePlayerAccessAsync(playerUUID).getNow(false);
+    }
 
-            return rowsAffected > 0;
+    public CompletableFuture<Boolean> removePlayerAccessAsync(UUID playerUUID) {
+        if (writeQueue != null) {
+            boolean known = getPlayerAccess(playerUUID).isPresent();
+            // A removal replaced by a later write in the same batch still removed what the caller saw.
+            return writeQueue.submit(queueRemoval(playerUUID, known))
+                    .thenApply(result -> result == WriteResult.SUPERSEDED ? known : result == WriteResult.STORED);
+        }
 
+        boolean removed;
+        long start = System.nanoTime();
+        try {
+            checkAvailable();
+            removed = store.delete(playerUUID);
+            storeSucceeded();
         } catch (Exception e) {
-            TimeBasedAccess.getInstance().getLogger().error("Error removing PlayerAccess: ", e);
-            return false;
+            storeFailed(e);
+            deleteTimer.recordError();
+            cache.invalidate(playerUUID);
+            logger.error("Error removing PlayerAccess: ", e);
+            return CompletableFuture.completedFuture(false);
+        } finally {
+            deleteTimer.record(System.nanoTime() - start);
         }
+
+        applyRemoval(playerUUID, removed);
+        return CompletableFuture.completedFuture(removed);
     }
 
-    public boolean hasValidAccess(UUID playerUUID) {
-        Optional<PlayerAccess> access = getPlayerAccess(playerUUID);
+    private AccessMutation queueRemoval(UUID playerUUID, boolean known) {
+        AccessMutation mutation = AccessMutation.delete(playerUUID);
+        pendingWrites.put(playerUUID, mutation);
+        applyRemoval(playerUUID, known);
+        return mutation;
+    }
+
+    private void applyUpdate(PlayerAccess playerAccess) {
+        cache.put(playerAccess.getPlayerUUID(), Optional.of(playerAccess));
+        if (index != null) {
+            index.put(playerAccess);
+        }
+        changeListeners.forEach(listener -> listener.onAccessUpdated(playerAccess));
+    }
 
-        if (access.isEmpty()) {
-            return false;
+    private void applyRemoval(UUID playerUUID, boolean removed) {
+        cache.put(playerUUID, Optional.empty());
+        if (index != null) {
+            index.remove(playerUUID);
         }
+        if (removed) {
+            changeListeners.forEach(listener -> listener.onAccessRemoved(playerUUID));
+        }
+    }
 
-        PlayerAccess playerAccess = access.get();
+    // Stores one chunk of grants in a single transaction, bypassing the write-behind queue.
+    public void importPlayerAccesses(List<PlayerAccess> playerAccesses) throws AccessStoreException {
+        List<AccessMutation> mutations = new ArrayList<>(playerAccesses.size());
+        for (PlayerAccess playerAccess : playerAccesses) {
+            mutations.add(AccessMutation.save(playerAccess));
+        }
 
-        if (playerAccess.isPermaAccess()) {
-            return true;
+        long start = System.nanoTime();
+        try {
+            store.applyBatch(mutations);
+        } catch (AccessStoreException e) {
+            importTimer.recordError();
+            throw e;
+        } finally {
+            importTimer.record(System.nanoTime() - start);
         }
 
-        LocalDateTime now = LocalDateTime.now();
-        return now.isAfter(playerAccess.getAccessStartTime()) && now.isBefore(playerAccess.getAccessEndTime());
+        // Only refresh entries that are already cached so a large import does not flush the hot set.
+        for (PlayerAccess playerAccess : playerAccesses) {
+            cache.replaceIfPresent(playerAccess.getPlayerUUID(), Optional.of(playerAccess));
+            if (index != null) {
+                index.put(playerAccess);
+            }
+            changeListeners.forEach(listener -> listener.onAccessUpdated(playerAccess));
+        }
     }
 
-    public int cleanupExpiredAccesses() {
-        try (Connection connection = TimeBasedAccess.getDatabaseManager().getConnection();
-             PreparedStatement statement = connection.prepareStatement(
-                     "DELETE FROM tbaccess WHERE accessEndTime < ? AND permaAccess = FALSE")) {
+    public void exportPlayerAccesses(AccessStore.AccessVisitor visitor) throws AccessStoreException {
+        store.forEach(visitor);
+    }
 
-            statement.setObject(1, LocalDateTime.now());
-            return statement.executeUpdate();
+    public boolean isShared() {
+        return store.isShared();
+    }
 
+    public long getCurrentVersion() {
+        try {
+            return store.currentVersion();
         } catch (Exception e) {
-            TimeBasedAccess.getInstance().getLogger().error("Error cleaning up expired accesses: ", e);
+            logger.error("Error reading change version: ", e);
+            return -1L;
+        }
+    }
+
+    // Applies every grant and tombstone newer than sinceVersion and returns the new high-water mark.
+    public long pollChanges(long sinceVersion, int limit) {
+        List<AccessChange> changes;
+        long start = System.nanoTime();
+        try {
+            changes = store.changesSince(sinceVersion, limit);
+        } catch (Exception e) {
+            pollTimer.recordError();
+            logger.error("Error polling access changes: ", e);
+            return sinceVersion;
+        } finally {
+            pollTimer.record(System.nanoTime() - start);
+        }
+
+        long applied = sinceVersion;
+        for (AccessChange change : changes) {
+            if (change.isRemoval()) {
+                cache.put(change.getPlayerUUID(), Optional.empty());
+                if (index != null) {
+                    index.remove(change.getPlayerUUID());
+                }
+                changeListeners.forEach(listener -> listener.onAccessRemoved(change.getPlayerUUID()));
+            } else {
+                cache.put(change.getPlayerUUID(), Optional.of(change.getAccess()));
+                if (index != null) {
+                    index.put(change.getAccess());
+                }
+                changeListeners.forEach(listener -> listener.onAccessUpdated(change.getAccess()));
+            }
+            applied = change.getVersion();
+        }
+
+        return applied;
+    }
+
+    public int pruneTombstones(int retentionHours, int batchSize) {
+        try {
+            return store.pruneTombstones(retentionHours, batchSize);
+        } catch (Exception e) {
+            logger.error("Error pruning access tombstones: ", e);
             return 0;
         }
     }
-}
\ No newline at end of file
+
+    public boolean hasValidAccess(UUID playerUUID) {
+        if (index != null && index.isComplete()) {
+            return index.evaluate(playerUUID, clock.coarseMillis()) == AccessStatus.VALID;
+        }
+        PlayerAccess playerAccess = getPlayerAccess(playerUUID).orElse(null);
+        return AccessEvaluator.evaluate(playerAccess, clock.coarseMillis()) == AccessStatus.VALID;
+    }
+
+    public int cleanupExpiredAccesses(int batchSize, long pauseMillis) {
+        long cutoffMillis = clock.millis();
+        int total = 0;
+
+        while (true) {
+            int removed = deleteExpiredChunk(cutoffMillis, batchSize);
+            if (removed < 0) {
+                break;
+            }
+
+            total += removed;
+            if (removed < batchSize) {
+                break;
+            }
+
+            try {
+                Thread.sleep(pauseMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        // Another proxy may already have deleted the rows, so local state is pruned whatever this run removed.
+        cache.invalidateExpired(cutoffMillis);
+        if (index != null) {
+            index.removeExpired(cutoffMillis);
+        }
+        changeListeners.forEach(listener -> listener.onExpiredRemoved(cutoffMillis));
+        return total;
+    }
+
+    private int deleteExpiredChunk(long cutoffMillis, int limit) {
+        long start = System.nanoTime();
+        try {
+            return store.deleteExpired(cutoffMillis, limit);
+        } catch (Exception e) {
+            cleanupTimer.recordError();
+            logger.error("Error cleaning up expired accesses: ", e);
+            return -1;
+        } finally {
+            cleanupTimer.record(System.nanoTime() - start);
+        }
+    }
+
+    public void addChangeListener(AccessChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(AccessChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    public void invalidate(UUID playerUUID) {
+        cache.invalidate(playerUUID);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public AccessCache getCache() {
+        return cache;
+    }
+
+    public AdmissionGate getAdmissionGate() {
+        return admissionGate;
+    }
+
+    public AccessClock getClock() {
+        return clock;
+    }
+
+    public CompactAccessIndex getIndex() {
+        return index;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public AccessSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public long getSingleFlightJoins() {
+        return singleFlightJoins.sum();
+    }
+
+    public AccessWriteQueue getWriteQueue() {
+        return writeQueue;
+    }
+
+    public void close() {
+        if (writeQueue != null) {
+            writeQueue.shutdown(10_000);
+        }
+        store.close();
+    }
+}
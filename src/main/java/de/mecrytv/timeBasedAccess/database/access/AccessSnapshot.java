@@ -0,0 +1,106 @@
+package de.mecrytv.timeBasedAccess.database.access;
+
+import de.mecrytv.timeBasedAccess.utils.GeneralUtils;
+import org.slf4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+// Last-known-good copy of every grant, kept in memory and in the data directory so it survives a restart.
+// Only read while the circuit breaker is open; a miss here says nothing about the player's real access.
+public class AccessSnapshot {
+
+    private static final String SEPARATOR = "\t";
+
+    private final Path file;
+    private final Logger logger;
+
+    private volatile Map<UUID, PlayerAccess> entries = Map.of();
+    private volatile boolean available;
+
+    public AccessSnapshot(Path file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    public void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        Map<UUID, PlayerAccess> loaded = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                PlayerAccess access = decode(line.split(SEPARATOR));
+                loaded.put(access.getPlayerUUID(), access);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not read access snapshot {}: {}", file.getFileName(), e.getMessage());
+            return;
+        }
+
+        entries = loaded;
+        available = true;
+        logger.info("Access snapshot loaded {} grants from {}", loaded.size(), file.getFileName());
+    }
+
+    public void replace(Map<UUID, PlayerAccess> grants) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (PlayerAccess access : grants.values()) {
+                writer.write(encode(access));
+                writer.write('\n');
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        entries = grants;
+        available = true;
+    }
+
+    public Optional<PlayerAccess> get(UUID playerUUID) {
+        return Optional.ofNullable(entries.get(playerUUID));
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static String encode(PlayerAccess access) {
+        return access.getPlayerUUID()
+                + SEPARATOR + access.getPlayerName()
+                + SEPARATOR + access.getAccessStartMillis()
+                + SEPARATOR + access.getAccessEndMillis()
+                + SEPARATOR + access.isPermaAccess()
+                + SEPARATOR + GeneralUtils.joinServerScopes(access.getServerScopes());
+    }
+
+    private static PlayerAccess decode(String[] parts) {
+        return new PlayerAccess(
+                UUID.fromString(parts[0]),
+                parts[1],
+                Long.parseLong(parts[2]),
+                Long.parseLong(parts[3]),
+                Boolean.parseBoolean(parts[4]),
+                parts.length > 5 ? GeneralUtils.parseServerScopes(parts[5]) : Set.of()
+        );
+    }
+}
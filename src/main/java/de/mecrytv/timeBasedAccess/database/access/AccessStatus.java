@@ -0,0 +1,8 @@
+package de.mecrytv.timeBasedAccess.database.access;
+
+public enum AccessStatus {
+    VALID,
+    NO_ACCESS,
+    EXPIRED,
+    NOT_STARTED
+}
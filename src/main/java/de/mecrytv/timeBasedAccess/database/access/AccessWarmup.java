@@ -0,0 +1,99 @@
+package de.mecrytv.timeBasedAccess.database.access;
+
+import de.mecrytv.timeBasedAccess.database.store.AccessStoreException;
+import org.slf4j.Logger;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Preloads active grants into the cache. The key space is split into equal ranges of the leading UUID bits,
+// each range is paged by key on its own executor task, so no query ever needs an OFFSET.
+public class AccessWarmup {
+
+    private final AccessManager accessManager;
+    private final Executor executor;
+    private final Logger logger;
+    private final int partitions;
+    private final int pageSize;
+    private final int maxEntries;
+
+    private final AtomicInteger loaded = new AtomicInteger();
+    private final AtomicInteger finishedPartitions = new AtomicInteger();
+    private volatile boolean cancelled;
+
+    public AccessWarmup(AccessManager accessManager, Executor executor, Logger logger, int partitions, int pageSize, int maxEntries) {
+        this.accessManager = accessManager;
+        this.executor = executor;
+        this.logger = logger;
+        this.partitions = Math.max(1, partitions);
+        this.pageSize = Math.max(1, pageSize);
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    public CompletableFuture<Integer> start() {
+        long nowMillis = accessManager.getClock().millis();
+        long started = System.nanoTime();
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[partitions];
+
+        for (int i = 0; i < partitions; i++) {
+            UUID after = i == 0 ? null : lastKeyBefore(i);
+            UUID upTo = i == partitions - 1 ? null : lastKeyBefore(i + 1);
+            tasks[i] = CompletableFuture.runAsync(() -> loadPartition(nowMillis, after, upTo), executor);
+        }
+
+        return CompletableFuture.allOf(tasks).handle((ignored, error) -> {
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            if (error != null) {
+                logger.warn("Access warm-up stopped after {} ms with {} grants loaded: {}", millis, loaded.get(), error.getMessage());
+            } else {
+                logger.info("Access warm-up loaded {} active grants in {} ms", loaded.get(), millis);
+            }
+            return loaded.get();
+        });
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public int getLoaded() {
+        return loaded.get();
+    }
+
+    private void loadPartition(long nowMillis, UUID after, UUID upTo) {
+        UUID cursor = after;
+
+        try {
+            while (!cancelled) {
+                if (loaded.get() >= maxEntries) {
+                    logger.warn("Access warm-up stopped at the cache size of {} entries", maxEntries);
+                    break;
+                }
+
+                List<PlayerAccess> page = accessManager.loadActivePage(nowMillis, cursor, upTo, pageSize);
+                accessManager.preload(page);
+                loaded.addAndGet(page.size());
+
+                if (page.size() < pageSize) {
+                    break;
+                }
+                cursor = page.get(page.size() - 1).getPlayerUUID();
+            }
+        } catch (AccessStoreException e) {
+            logger.warn("Access warm-up partition failed, those players are loaded on login instead: {}", e.getMessage());
+        }
+
+        logger.info("Access warm-up {}/{} partitions done, {} grants loaded",
+                finishedPartitions.incrementAndGet(), partitions, loaded.get());
+    }
+
+    // Largest key below the start of the given partition, so ranges are (lastKeyBefore(i), lastKeyBefore(i + 1)].
+    private UUID lastKeyBefore(int partition) {
+        long step = Long.divideUnsigned(-1L, partitions);
+        return new UUID(step * partition - 1, -1L);
+    }
+}
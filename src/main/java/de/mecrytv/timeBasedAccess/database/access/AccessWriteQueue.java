@@ -0,0 +1,183 @@
+package de.mecrytv.timeBasedAccess.database.access;
+
+import de.mecrytv.timeBasedAccess.database.store.AccessMutation;
+import de.mecrytv.timeBasedAccess.database.store.AccessStore;
+import de.mecrytv.timeBasedAccess.metrics.OperationTimer;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// A single flusher thread applies batches in submission order, so writes for one player never overtake each other.
+public class AccessWriteQueue {
+
+    private final AccessStore store;
+    private final Logger logger;
+    private final int maxBatchSize;
+    private final long flushIntervalNanos;
+    private final Consumer<List<AccessMutation>> commitHandler;
+    private final Consumer<List<AccessMutation>> failureHandler;
+    private final OperationTimer batchTimer;
+
+    private final LinkedBlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    // Submits hold the read lock while they enqueue, so once shutdown has taken the write lock nothing lands in the
+    // queue after the flusher's final drain.
+    private final ReentrantReadWriteLock shutdownLock = new ReentrantReadWriteLock();
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public AccessWriteQueue(AccessStore store, Logger logger, int maxBatchSize, long flushIntervalMillis,
+                            Consumer<List<AccessMutation>> commitHandler, Consumer<List<AccessMutation>> failureHandler,
+                            OperationTimer batchTimer) {
+        this.store = store;
+        this.logger = logger;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMillis));
+        this.commitHandler = commitHandler;
+        this.failureHandler = failureHandler;
+        this.batchTimer = batchTimer;
+
+        this.flusher = new Thread(this::run, "TBAccess-WriteBehind");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public CompletableFuture<WriteResult> submit(AccessMutation mutation) {
+        shutdownLock.readLock().lock();
+        try {
+            if (!running) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Write-behind queue is shut down"));
+            }
+
+            PendingWrite write = new PendingWrite(mutation);
+            queue.add(write);
+            return write.future;
+        } finally {
+            shutdownLock.readLock().unlock();
+        }
+    }
+
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    public void shutdown(long timeoutMillis) {
+        shutdownLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            shutdownLock.writeLock().unlock();
+        }
+
+        try {
+            flusher.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (flusher.isAlive() || !queue.isEmpty()) {
+            logger.warn("Write-behind queue did not drain in time, {} writes are lost", queue.size());
+            IllegalStateException lost = new IllegalStateException("Write-behind queue shut down before the write was stored");
+            PendingWrite write;
+            while ((write = queue.poll()) != null) {
+                write.future.completeExceptionally(lost);
+            }
+        }
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = running
+                        ? queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS)
+                        : queue.poll();
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite next = running && remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        List<AccessMutation> mutations = new ArrayList<>(batch.size());
+        Map<UUID, Integer> positions = new HashMap<>();
+        int[] slots = new int[batch.size()];
+
+        // Later writes for the same player replace earlier ones within a batch.
+        for (int i = 0; i < batch.size(); i++) {
+            AccessMutation mutation = batch.get(i).mutation;
+            Integer position = positions.get(mutation.getPlayerUUID());
+            if (position == null) {
+                position = mutations.size();
+                positions.put(mutation.getPlayerUUID(), position);
+                mutations.add(mutation);
+            } else {
+                mutations.set(position, mutation);
+            }
+            slots[i] = position;
+        }
+
+        boolean[] changed;
+        long start = System.nanoTime();
+        try {
+            changed = store.applyBatch(mutations);
+        } catch (Exception e) {
+            batchTimer.recordError();
+            logger.error("Error flushing {} queued access writes: ", mutations.size(), e);
+            failureHandler.accept(mutations);
+            batch.forEach(write -> write.future.completeExceptionally(e));
+            return;
+        } finally {
+            batchTimer.record(System.nanoTime() - start);
+        }
+
+        commitHandler.accept(mutations);
+        for (int i = 0; i < batch.size(); i++) {
+            PendingWrite write = batch.get(i);
+            if (mutations.get(slots[i]) != write.mutation) {
+                write.future.complete(WriteResult.SUPERSEDED);
+            } else {
+                write.future.complete(changed[slots[i]] ? WriteResult.STORED : WriteResult.UNCHANGED);
+            }
+        }
+    }
+
+    private static final class PendingWrite {
+        private final AccessMutation mutation;
+        private final CompletableFuture<WriteResult> future = new CompletableFuture<>();
+
+        private PendingWrite(AccessMutation mutation) {
+            this.mutation = mutation;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package de.mecrytv.timeBasedAccess.database.access;
+
+import de.mecrytv.timeBasedAccess.database.store.AccessOverloadedException;
+import de.mecrytv.timeBasedAccess.database.store.AccessStoreException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounds logins in progress (running plus queued) and the store calls they make, rejecting early instead of piling up
+// on the connection pool until every request hits the pool's connection timeout.
+public class AdmissionGate {
+
+    private final int maxPending;
+    private final long queueTimeoutNanos;
+    private final Semaphore permits;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public AdmissionGate(int maxConcurrent, int maxQueue, long queueTimeoutMillis) {
+        int concurrency = Math.max(1, maxConcurrent);
+        this.maxPending = concurrency + Math.max(0, maxQueue);
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, queueTimeoutMillis));
+        this.permits = new Semaphore(concurrency, true);
+    }
+
+    // Called before a login is queued for the IO executor; every successful call must be paired with exit().
+    public boolean tryEnter() {
+        while (true) {
+            int current = pending.get();
+            if (current >= maxPending) {
+                rejected.increment();
+                return false;
+            }
+            if (pending.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void exit() {
+        pending.decrementAndGet();
+    }
+
+    public <T> T call(StoreCall<T> call) throws AccessStoreException {
+        if (!permits.tryAcquire()) {
+            try {
+                if (!permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                    timedOut.increment();
+                    throw new AccessOverloadedException("Timed out waiting for a store slot");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AccessOverloadedException("Interrupted while waiting for a store slot");
+            }
+        }
+
+        try {
+            return call.call();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int getPending() {
+        return pending.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getTimedOut() {
+        return timedOut.sum();
+    }
+
+    @FunctionalInterface
+    public interface StoreCall<T> {
+        T call() throws AccessStoreException;
+    }
+}
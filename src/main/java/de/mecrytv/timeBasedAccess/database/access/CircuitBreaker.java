@@ -0,0 +1,105 @@
+package de.mecrytv.timeBasedAccess.database.access;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Opens after consecutive store failures so callers fail fast instead of each waiting for the connection timeout.
+// Once the open period is over a single probe call is let through; its outcome closes or re-opens the circuit.
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final Logger logger;
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder trips = new LongAdder();
+    // Taken on virtual threads around store calls, where a monitor would pin the carrier.
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile State state = State.CLOSED;
+    private volatile int consecutiveFailures;
+    private long openedAt;
+
+    public CircuitBreaker(int failureThreshold, long openMillis, Logger logger) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, openMillis));
+        this.logger = logger;
+    }
+
+    // Every call that is allowed must be followed by onSuccess() or onFailure().
+    public boolean allowRequest() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+
+        lock.lock();
+        try {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                state = State.HALF_OPEN;
+                return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        shortCircuited.increment();
+        return false;
+    }
+
+    public void onSuccess() {
+        if (state == State.CLOSED && consecutiveFailures == 0) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            consecutiveFailures = 0;
+            if (state != State.CLOSED) {
+                state = State.CLOSED;
+                logger.info("Access store reachable again, circuit closed");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onFailure() {
+        lock.lock();
+        try {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+                if (state == State.CLOSED) {
+                    logger.warn("Access store failed {} times in a row, circuit opened for {} ms",
+                            consecutiveFailures, TimeUnit.NANOSECONDS.toMillis(openNanos));
+                }
+                state = State.OPEN;
+                openedAt = System.nanoTime();
+                trips.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isOpen() {
+        return state != State.CLOSED;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getShortCircuited() {
+        return shortCircuited.sum();
+    }
+
+    public long getTrips() {
+        return trips.sum();
+    }
+}
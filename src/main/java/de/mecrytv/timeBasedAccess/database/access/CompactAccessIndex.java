@@ -0,0 +1,339 @@
+package de.mecrytv.timeBasedAccess.database.access;
+
+import java.lang.invoke.VarHandle;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Every grant as primitives in one open-addressing table: the UUID halves, start/end as UTC epoch millis and a
+// perma flag, 33 bytes per slot and no objects per entry. Linear probing with backward-shift deletion, so there are
+// no tombstones. Writes are serialized; reads take no lock and retry if a write ran concurrently (seqlock).
+public class CompactAccessIndex {
+
+    private static final float MAX_LOAD = 0.75f;
+    private static final int MIN_CAPACITY = 1024;
+
+    private static final byte EMPTY = 0;
+    private static final byte TIMED = 1;
+    private static final byte PERMA = 2;
+
+    // Odd while a write is in progress.
+    private volatile long version;
+    private volatile Table table = new Table(MIN_CAPACITY);
+    private volatile boolean complete;
+    // Serializes writers, which run on virtual threads where a monitor would pin the carrier.
+    private final ReentrantLock lock = new ReentrantLock();
+    private int size;
+    // Players written or removed while the initial load runs; the load must not bring back what it read before.
+    private final Set<UUID> changedWhileLoading = new HashSet<>();
+
+    public boolean contains(UUID playerUUID) {
+        long high = playerUUID.getMostSignificantBits();
+        long low = playerUUID.getLeastSignificantBits();
+
+        while (true) {
+            long before = version;
+            if ((before & 1) == 0) {
+                boolean found = find(table, high, low) >= 0;
+                VarHandle.loadLoadFence();
+                if (version == before) {
+                    return found;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    // Allocation-free counterpart of AccessEvaluator.evaluate for callers that only need the verdict.
+    public AccessStatus evaluate(UUID playerUUID, long nowMillis) {
+        long high = playerUUID.getMostSignificantBits();
+        long low = playerUUID.getLeastSignificantBits();
+
+        while (true) {
+            long before = version;
+            if ((before & 1) == 0) {
+                Table current = table;
+                int slot = find(current, high, low);
+                byte state = slot < 0 ? EMPTY : current.states[slot];
+                long start = slot < 0 ? 0 : current.times[slot << 1];
+                long end = slot < 0 ? 0 : current.times[(slot << 1) + 1];
+                VarHandle.loadLoadFence();
+                if (version == before) {
+                    return status(state, start, end, nowMillis);
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    public void put(PlayerAccess playerAccess) {
+        put(playerAccess, true);
+    }
+
+    // Used by the initial load so it never overwrites an update or removal that arrived while the load was running.
+    public void putIfAbsent(PlayerAccess playerAccess) {
+        put(playerAccess, false);
+    }
+
+    private void put(PlayerAccess playerAccess, boolean replace) {
+        lock.lock();
+        try {
+            UUID playerUUID = playerAccess.getPlayerUUID();
+            if (!complete) {
+                if (!replace && changedWhileLoading.contains(playerUUID)) {
+                    return;
+                }
+                if (replace) {
+                    changedWhileLoading.add(playerUUID);
+                }
+            }
+            long high = playerUUID.getMostSignificantBits();
+            long low = playerUUID.getLeastSignificantBits();
+            byte state = playerAccess.isPermaAccess() ? PERMA : TIMED;
+            long start = playerAccess.getAccessStartMillis();
+            long end = playerAccess.getAccessEndMillis();
+
+            if (size + 1 > table.capacity * MAX_LOAD) {
+                Table grown = new Table(table.capacity << 1);
+                copyInto(table, grown);
+                beginWrite();
+                table = grown;
+                endWrite();
+            }
+
+            Table current = table;
+            int slot = current.slot(high, low);
+            while (current.states[slot] != EMPTY && !current.matches(slot, high, low)) {
+                slot = (slot + 1) & current.mask;
+            }
+            if (!replace && current.states[slot] != EMPTY) {
+                return;
+            }
+
+            beginWrite();
+            if (current.states[slot] == EMPTY) {
+                current.keys[slot << 1] = high;
+                current.keys[(slot << 1) + 1] = low;
+                size++;
+            }
+            current.times[slot << 1] = start;
+            current.times[(slot << 1) + 1] = end;
+            current.states[slot] = state;
+            endWrite();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean remove(UUID playerUUID) {
+        lock.lock();
+        try {
+            if (!complete) {
+                changedWhileLoading.add(playerUUID);
+            }
+            Table current = table;
+            int slot = find(current, playerUUID.getMostSignificantBits(), playerUUID.getLeastSignificantBits());
+            if (slot < 0) {
+                return false;
+            }
+
+            beginWrite();
+            deleteSlot(current, slot);
+            size--;
+            endWrite();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Drops timed grants that ended before the cutoff, in one pass and one write section.
+    public int removeExpired(long cutoffMillis) {
+        lock.lock();
+        try {
+            Table current = table;
+            Table kept = new Table(current.capacity);
+            int removed = 0;
+
+            for (int slot = 0; slot < current.capacity; slot++) {
+                byte state = current.states[slot];
+                if (state == EMPTY) {
+                    continue;
+                }
+                if (state == TIMED && current.times[(slot << 1) + 1] < cutoffMillis) {
+                    removed++;
+                } else {
+                    insert(kept, current, slot);
+                }
+            }
+
+            if (removed > 0) {
+                beginWrite();
+                table = kept;
+                size -= removed;
+                endWrite();
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            beginWrite();
+            table = new Table(MIN_CAPACITY);
+            size = 0;
+            complete = false;
+            changedWhileLoading.clear();
+            endWrite();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Set once every stored grant has been added; only then is a miss a definite "no access".
+    public void markComplete() {
+        lock.lock();
+        try {
+            complete = true;
+            changedWhileLoading.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int capacity() {
+        return table.capacity;
+    }
+
+    public long getMemoryBytes() {
+        return (long) table.capacity * (Long.BYTES * 4 + 1);
+    }
+
+    private static int find(Table current, long high, long low) {
+        int slot = current.slot(high, low);
+        // Bounded so a read racing a write can never spin on a half-written table.
+        for (int probes = 0; probes < current.capacity; probes++) {
+            if (current.states[slot] == EMPTY) {
+                return -1;
+            }
+            if (current.matches(slot, high, low)) {
+                return slot;
+            }
+            slot = (slot + 1) & current.mask;
+        }
+        return -1;
+    }
+
+    // Moves later entries of the probe run back into the gap so lookups never need tombstones.
+    private static void deleteSlot(Table current, int slot) {
+        int gap = slot;
+        int next = (gap + 1) & current.mask;
+
+        while (current.states[next] != EMPTY) {
+            int home = current.slot(current.keys[next << 1], current.keys[(next << 1) + 1]);
+            if (((next - home) & current.mask) >= ((next - gap) & current.mask)) {
+                moveSlot(current, next, gap);
+                gap = next;
+            }
+            next = (next + 1) & current.mask;
+        }
+        current.states[gap] = EMPTY;
+    }
+
+    private static void moveSlot(Table current, int from, int to) {
+        current.keys[to << 1] = current.keys[from << 1];
+        current.keys[(to << 1) + 1] = current.keys[(from << 1) + 1];
+        current.times[to << 1] = current.times[from << 1];
+        current.times[(to << 1) + 1] = current.times[(from << 1) + 1];
+        current.states[to] = current.states[from];
+    }
+
+    private static void copyInto(Table from, Table to) {
+        for (int slot = 0; slot < from.capacity; slot++) {
+            if (from.states[slot] != EMPTY) {
+                insert(to, from, slot);
+            }
+        }
+    }
+
+    private static void insert(Table to, Table from, int fromSlot) {
+        long high = from.keys[fromSlot << 1];
+        long low = from.keys[(fromSlot << 1) + 1];
+        int slot = to.slot(high, low);
+        while (to.states[slot] != EMPTY) {
+            slot = (slot + 1) & to.mask;
+        }
+        to.keys[slot << 1] = high;
+        to.keys[(slot << 1) + 1] = low;
+        to.times[slot << 1] = from.times[fromSlot << 1];
+        to.times[(slot << 1) + 1] = from.times[(fromSlot << 1) + 1];
+        to.states[slot] = from.states[fromSlot];
+    }
+
+    private void beginWrite() {
+        version++;
+        VarHandle.storeStoreFence();
+    }
+
+    private void endWrite() {
+        version++;
+    }
+
+    private static AccessStatus status(byte state, long start, long end, long nowMillis) {
+        if (state == EMPTY) {
+            return AccessStatus.NO_ACCESS;
+        }
+        if (state == PERMA) {
+            return AccessStatus.VALID;
+        }
+        if (nowMillis >= end) {
+            return AccessStatus.EXPIRED;
+        }
+        if (nowMillis < start) {
+            return AccessStatus.NOT_STARTED;
+        }
+        return AccessStatus.VALID;
+    }
+
+    private static final class Table {
+        private final int capacity;
+        private final int mask;
+        private final long[] keys;
+        private final long[] times;
+        private final byte[] states;
+
+        private Table(int capacity) {
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            this.keys = new long[capacity << 1];
+            this.times = new long[capacity << 1];
+            this.states = new byte[capacity];
+        }
+
+        private int slot(long high, long low) {
+            long hash = (high ^ low) * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        private boolean matches(int slot, long high, long low) {
+            return keys[slot << 1] == high && keys[(slot << 1) + 1] == low;
+        }
+    }
+}
@@ -1,22 +1,41 @@
 package de.mecrytv.timeBasedAccess.database.access;
 
-import java.time.LocalDateTime;
+import java.time.Instant;
+import java.util.Set;
 import java.util.UUID;
 
+// Start and end are UTC epoch millis, so comparing them against the clock needs no zone and no allocation.
+// Server scopes are lower-case backend server or group names; an empty set grants every server.
 public class PlayerAccess {
 
     private UUID playerUUID;
     private String playerName;
-    private LocalDateTime accessStartTime;
-    private LocalDateTime accessEndTime;
+    private long accessStartMillis;
+    private long accessEndMillis;
     private boolean permaAccess;
+    private Set<String> serverScopes;
 
-    public PlayerAccess(UUID playerUUID, String playerName, LocalDateTime accessStartTime, LocalDateTime accessEndTime, boolean permaAccess) {
+    public PlayerAccess(UUID playerUUID, String playerName, Instant accessStartTime, Instant accessEndTime, boolean permaAccess) {
+        this(playerUUID, playerName, accessStartTime, accessEndTime, permaAccess, Set.of());
+    }
+
+    public PlayerAccess(UUID playerUUID, String playerName, Instant accessStartTime, Instant accessEndTime, boolean permaAccess,
+                        Set<String> serverScopes) {
+        this(playerUUID, playerName, accessStartTime.toEpochMilli(), accessEndTime.toEpochMilli(), permaAccess, serverScopes);
+    }
+
+    public PlayerAccess(UUID playerUUID, String playerName, long accessStartMillis, long accessEndMillis, boolean permaAccess) {
+        this(playerUUID, playerName, accessStartMillis, accessEndMillis, permaAccess, Set.of());
+    }
+
+    public PlayerAccess(UUID playerUUID, String playerName, long accessStartMillis, long accessEndMillis, boolean permaAccess,
+                        Set<String> serverScopes) {
         this.playerUUID = playerUUID;
         this.playerName = playerName;
-        this.accessStartTime = accessStartTime;
-        this.accessEndTime = accessEndTime;
+        this.accessStartMillis = accessStartMillis;
+        this.accessEndMillis = accessEndMillis;
         this.permaAccess = permaAccess;
+        this.serverScopes = Set.copyOf(serverScopes);
     }
 
     public UUID getPlayerUUID() {
@@ -35,20 +54,28 @@ public class PlayerAccess {
         this.playerName = playerName;
     }
 
-    public LocalDateTime getAccessStartTime() {
-        return accessStartTime;
+    public Instant getAccessStartTime() {
+        return Instant.ofEpochMilli(accessStartMillis);
+    }
+
+    public void setAccessStartTime(Instant accessStartTime) {
+        this.accessStartMillis = accessStartTime.toEpochMilli();
     }
 
-    public void setAccessStartTime(LocalDateTime accessStartTime) {
-        this.accessStartTime = accessStartTime;
+    public Instant getAccessEndTime() {
+        return Instant.ofEpochMilli(accessEndMillis);
     }
 
-    public LocalDateTime getAccessEndTime() {
-        return accessEndTime;
+    public void setAccessEndTime(Instant accessEndTime) {
+        this.accessEndMillis = accessEndTime.toEpochMilli();
     }
 
-    public void setAccessEndTime(LocalDateTime accessEndTime) {
-        this.accessEndTime = accessEndTime;
+    public long getAccessStartMillis() {
+        return accessStartMillis;
+    }
+
+    public long getAccessEndMillis() {
+        return accessEndMillis;
     }
 
     public boolean isPermaAccess() {
@@ -58,4 +85,16 @@ public class PlayerAccess {
     public void setPermaAccess(boolean permaAccess) {
         this.permaAccess = permaAccess;
     }
+
+    public Set<String> getServerScopes() {
+        return serverScopes;
+    }
+
+    public void setServerScopes(Set<String> serverScopes) {
+        this.serverScopes = Set.copyOf(serverScopes);
+    }
+
+    public boolean isAllServers() {
+        return serverScopes.isEmpty();
+    }
 }
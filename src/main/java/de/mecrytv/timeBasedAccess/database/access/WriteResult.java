@@ -0,0 +1,8 @@
+package de.mecrytv.timeBasedAccess.database.access;
+
+public enum WriteResult {
+    STORED,
+    UNCHANGED,
+    // A later write for the same player in the same batch replaced this one before it reached the store.
+    SUPERSEDED
+}
@@ -0,0 +1,173 @@
+package de.mecrytv.timeBasedAccess.database.migration;
+
+import de.mecrytv.timeBasedAccess.utils.GeneralUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+public final class AccessMigrations {
+
+    private AccessMigrations() {
+    }
+
+    public static List<Migration> all(ZoneId legacyZone) {
+        return List.of(
+                Migration.sql(1, "Create tbaccess table",
+                        "CREATE TABLE IF NOT EXISTS `tbaccess` (`ID` INT AUTO_INCREMENT, `playerUUID` VARCHAR(36) NOT NULL UNIQUE, " +
+                                "`playerName` VARCHAR(16) NOT NULL, `accessStartTime` DATETIME NOT NULL, `accessEndTime` DATETIME NOT NULL, " +
+                                "`permaAccess` BOOLEAN NOT NULL DEFAULT FALSE, PRIMARY KEY (`ID`)) " +
+                                "ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci"),
+                new BinaryUuidKeyMigration(),
+                Migration.sql(3, "Add expiry and player name indexes",
+                        "CREATE INDEX `idx_tbaccess_expiry` ON `tbaccess` (`permaAccess`, `accessEndTime`)",
+                        "CREATE INDEX `idx_tbaccess_name` ON `tbaccess` (`playerName`, `accessStartTime`)"),
+                Migration.sql(4, "Add change versions and tombstones for cross-proxy sync",
+                        "CREATE TABLE IF NOT EXISTS `tbaccess_sequence` (`name` VARCHAR(32) NOT NULL, `value` BIGINT NOT NULL, " +
+                                "PRIMARY KEY (`name`)) ENGINE=InnoDB",
+                        "INSERT IGNORE INTO `tbaccess_sequence` (`name`, `value`) VALUES ('change', 0)",
+                        "ALTER TABLE `tbaccess` ADD COLUMN `version` BIGINT NOT NULL DEFAULT 0, " +
+                                "ADD INDEX `idx_tbaccess_version` (`version`)",
+                        "CREATE TABLE IF NOT EXISTS `tbaccess_tombstones` (`playerUUID` BINARY(16) NOT NULL, `version` BIGINT NOT NULL, " +
+                                "`deletedAt` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, PRIMARY KEY (`playerUUID`), " +
+                                "INDEX `idx_tombstones_version` (`version`), INDEX `idx_tombstones_deleted` (`deletedAt`)) ENGINE=InnoDB"),
+                new EpochMillisMigration(legacyZone),
+                Migration.sql(6, "Add per-server access scopes",
+                        "ALTER TABLE `tbaccess` ADD COLUMN `serverScopes` VARCHAR(1024) NOT NULL DEFAULT ''")
+        );
+    }
+
+    private static String columnType(Connection connection, String table, String column) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT DATA_TYPE FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?")) {
+            statement.setString(1, table);
+            statement.setString(2, column);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+
+    private static boolean indexExists(Connection connection, String table, String index) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT 1 FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ? LIMIT 1")) {
+            statement.setString(1, table);
+            statement.setString(2, index);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+
+    private static final class BinaryUuidKeyMigration implements Migration {
+
+        @Override
+        public int version() {
+            return 2;
+        }
+
+        @Override
+        public String description() {
+            return "Key tbaccess by BINARY(16) playerUUID";
+        }
+
+        @Override
+        public void migrate(Connection connection) throws SQLException {
+            if ("binary".equalsIgnoreCase(columnType(connection, "tbaccess", "playerUUID"))) {
+                return;
+            }
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS `tbaccess_new`");
+                statement.execute("CREATE TABLE `tbaccess_new` (`playerUUID` BINARY(16) NOT NULL, `playerName` VARCHAR(16) NOT NULL, " +
+                        "`accessStartTime` DATETIME NOT NULL, `accessEndTime` DATETIME NOT NULL, " +
+                        "`permaAccess` BOOLEAN NOT NULL DEFAULT FALSE, PRIMARY KEY (`playerUUID`)) " +
+                        "ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci");
+                statement.execute("INSERT INTO `tbaccess_new` (playerUUID, playerName, accessStartTime, accessEndTime, permaAccess) " +
+                        "SELECT UNHEX(REPLACE(playerUUID, '-', '')), playerName, accessStartTime, accessEndTime, permaAccess FROM `tbaccess`");
+                statement.execute("RENAME TABLE `tbaccess` TO `tbaccess_legacy`, `tbaccess_new` TO `tbaccess`");
+                statement.execute("DROP TABLE `tbaccess_legacy`");
+            }
+        }
+    }
+
+    // DATETIME carries no zone, so the values are converted in Java with the zone older versions wrote them in rather
+    // than trusting the server or driver time zone. Each step checks the current columns, so a run that was interrupted
+    // is picked up where it stopped.
+    private static final class EpochMillisMigration implements Migration {
+
+        private static final int BATCH_SIZE = 1000;
+
+        private final ZoneId legacyZone;
+
+        private EpochMillisMigration(ZoneId legacyZone) {
+            this.legacyZone = legacyZone;
+        }
+
+        @Override
+        public int version() {
+            return 5;
+        }
+
+        @Override
+        public String description() {
+            return "Store access times as UTC epoch millis";
+        }
+
+        @Override
+        public void migrate(Connection connection) throws SQLException {
+            try (Statement statement = connection.createStatement()) {
+                if (columnType(connection, "tbaccess", "accessStartMillis") == null) {
+                    statement.execute("ALTER TABLE `tbaccess` ADD COLUMN `accessStartMillis` BIGINT NULL, ADD COLUMN `accessEndMillis` BIGINT NULL");
+                }
+
+                if (columnType(connection, "tbaccess", "accessStartTime") != null) {
+                    convert(connection);
+                    statement.execute("ALTER TABLE `tbaccess` DROP INDEX `idx_tbaccess_expiry`, DROP INDEX `idx_tbaccess_name`, " +
+                            "DROP COLUMN `accessStartTime`, DROP COLUMN `accessEndTime`");
+                }
+
+                statement.execute("ALTER TABLE `tbaccess` MODIFY `accessStartMillis` BIGINT NOT NULL, MODIFY `accessEndMillis` BIGINT NOT NULL");
+
+                if (!indexExists(connection, "tbaccess", "idx_tbaccess_expiry")) {
+                    statement.execute("ALTER TABLE `tbaccess` ADD INDEX `idx_tbaccess_expiry` (`permaAccess`, `accessEndMillis`)");
+                }
+                if (!indexExists(connection, "tbaccess", "idx_tbaccess_name")) {
+                    statement.execute("ALTER TABLE `tbaccess` ADD INDEX `idx_tbaccess_name` (`playerName`, `accessStartMillis`)");
+                }
+            }
+        }
+
+        private void convert(Connection connection) throws SQLException {
+            try (PreparedStatement select = connection.prepareStatement(
+                         "SELECT playerUUID, accessStartTime, accessEndTime FROM tbaccess WHERE accessStartMillis IS NULL LIMIT " + BATCH_SIZE);
+                 PreparedStatement update = connection.prepareStatement(
+                         "UPDATE tbaccess SET accessStartMillis = ?, accessEndMillis = ? WHERE playerUUID = ?")) {
+
+                int converted;
+                do {
+                    converted = 0;
+                    try (ResultSet resultSet = select.executeQuery()) {
+                        while (resultSet.next()) {
+                            update.setLong(1, GeneralUtils.toEpochMillis(resultSet.getObject("accessStartTime", LocalDateTime.class), legacyZone));
+                            update.setLong(2, GeneralUtils.toEpochMillis(resultSet.getObject("accessEndTime", LocalDateTime.class), legacyZone));
+                            update.setBytes(3, resultSet.getBytes("playerUUID"));
+                            update.addBatch();
+                            converted++;
+                        }
+                    }
+                    if (converted > 0) {
+                        update.executeBatch();
+                    }
+                } while (converted == BATCH_SIZE);
+            }
+        }
+    }
+}
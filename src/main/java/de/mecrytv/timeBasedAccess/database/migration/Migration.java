@@ -0,0 +1,37 @@
+package de.mecrytv.timeBasedAccess.database.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public interface Migration {
+
+    int version();
+
+    String description();
+
+    void migrate(Connection connection) throws SQLException;
+
+    static Migration sql(int version, String description, String... statements) {
+        return new Migration() {
+            @Override
+            public int version() {
+                return version;
+            }
+
+            @Override
+            public String description() {
+                return description;
+            }
+
+            @Override
+            public void migrate(Connection connection) throws SQLException {
+                try (Statement statement = connection.createStatement()) {
+                    for (String sql : statements) {
+                        statement.execute(sql);
+                    }
+                }
+            }
+        };
+    }
+}
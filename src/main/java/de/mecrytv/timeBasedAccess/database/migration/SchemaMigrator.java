@@ -0,0 +1,99 @@
+package de.mecrytv.timeBasedAccess.database.migration;
+
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public class SchemaMigrator {
+
+    private static final String VERSION_TABLE = "tbaccess_schema_version";
+    private static final String LOCK_NAME = "tbaccess_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    private final Logger logger;
+    private final List<Migration> migrations;
+
+    public SchemaMigrator(Logger logger, List<Migration> migrations) {
+        this.logger = logger;
+        this.migrations = new ArrayList<>(migrations);
+        this.migrations.sort(Comparator.comparingInt(Migration::version));
+    }
+
+    public int migrate(Connection connection) throws SQLException {
+        acquireLock(connection);
+        try {
+            createVersionTable(connection);
+
+            int current = currentVersion(connection);
+            for (Migration migration : migrations) {
+                if (migration.version() <= current) {
+                    continue;
+                }
+
+                long started = System.currentTimeMillis();
+                logger.info("Applying schema migration V{}: {}", migration.version(), migration.description());
+
+                migration.migrate(connection);
+                recordVersion(connection, migration);
+                current = migration.version();
+
+                logger.info("Schema migration V{} applied in {} ms", migration.version(), System.currentTimeMillis() - started);
+            }
+            return current;
+        } finally {
+            releaseLock(connection);
+        }
+    }
+
+    private void createVersionTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS `" + VERSION_TABLE + "` (`version` INT NOT NULL, `description` VARCHAR(255) NOT NULL, " +
+                    "`appliedAt` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, PRIMARY KEY (`version`)) ENGINE=InnoDB");
+        }
+    }
+
+    private int currentVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(version), 0) FROM " + VERSION_TABLE)) {
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    private void recordVersion(Connection connection, Migration migration) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO " + VERSION_TABLE + " (version, description) VALUES (?, ?)")) {
+            statement.setInt(1, migration.version());
+            statement.setString(2, migration.description());
+            statement.executeUpdate();
+        }
+    }
+
+    private void acquireLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            statement.setString(1, LOCK_NAME);
+            statement.setInt(2, LOCK_TIMEOUT_SECONDS);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next() || resultSet.getInt(1) != 1) {
+                    throw new SQLException("Could not acquire schema migration lock within " + LOCK_TIMEOUT_SECONDS + "s");
+                }
+            }
+        }
+    }
+
+    private void releaseLock(Connection connection) {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, LOCK_NAME);
+            statement.executeQuery().close();
+        } catch (SQLException e) {
+            logger.warn("Could not release schema migration lock: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package de.mecrytv.timeBasedAccess.database.store;
+
+import de.mecrytv.timeBasedAccess.database.access.PlayerAccess;
+
+import java.util.UUID;
+
+public final class AccessChange {
+
+    private final long version;
+    private final UUID playerUUID;
+    private final PlayerAccess access;
+
+    private AccessChange(long version, UUID playerUUID, PlayerAccess access) {
+        this.version = version;
+        this.playerUUID = playerUUID;
+        this.access = access;
+    }
+
+    public static AccessChange updated(long version, PlayerAccess access) {
+        return new AccessChange(version, access.getPlayerUUID(), access);
+    }
+
+    public static AccessChange removed(long version, UUID playerUUID) {
+        return new AccessChange(version, playerUUID, null);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public UUID getPlayerUUID() {
+        return playerUUID;
+    }
+
+    public PlayerAccess getAccess() {
+        return access;
+    }
+
+    public boolean isRemoval() {
+        return access == null;
+    }
+}
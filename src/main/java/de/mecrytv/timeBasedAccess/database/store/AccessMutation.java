@@ -0,0 +1,36 @@
+package de.mecrytv.timeBasedAccess.database.store;
+
+import de.mecrytv.timeBasedAccess.database.access.PlayerAccess;
+
+import java.util.UUID;
+
+public final class AccessMutation {
+
+    private final UUID playerUUID;
+    private final PlayerAccess access;
+
+    private AccessMutation(UUID playerUUID, PlayerAccess access) {
+        this.playerUUID = playerUUID;
+        this.access = access;
+    }
+
+    public static AccessMutation save(PlayerAccess access) {
+        return new AccessMutation(access.getPlayerUUID(), access);
+    }
+
+    public static AccessMutation delete(UUID playerUUID) {
+        return new AccessMutation(playerUUID, null);
+    }
+
+    public UUID getPlayerUUID() {
+        return playerUUID;
+    }
+
+    public PlayerAccess getAccess() {
+        return access;
+    }
+
+    public boolean isDelete() {
+        return access == null;
+    }
+}
@@ -0,0 +1,9 @@
+package de.mecrytv.timeBasedAccess.database.store;
+
+// Thrown instead of waiting for the database when the admission gate is saturated.
+public class AccessOverloadedException extends AccessStoreException {
+
+    public AccessOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,99 @@
+package de.mecrytv.timeBasedAccess.database.store;
+
+import de.mecrytv.timeBasedAccess.database.access.PlayerAccess;
+import de.mecrytv.timeBasedAccess.utils.GeneralUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface AccessStore {
+
+    void init() throws AccessStoreException;
+
+    Optional<PlayerAccess> find(UUID playerUUID) throws AccessStoreException;
+
+    Map<UUID, PlayerAccess> findAll(Collection<UUID> playerUUIDs) throws AccessStoreException;
+
+    Optional<UUID> findUUIDByName(String playerName) throws AccessStoreException;
+
+    // Keys of the result are lower-case player names.
+    default Map<String, UUID> findUUIDsByNames(Collection<String> playerNames) throws AccessStoreException {
+        Map<String, UUID> result = new HashMap<>();
+        for (String playerName : playerNames) {
+            findUUIDByName(playerName).ifPresent(uuid -> result.put(playerName.toLowerCase(Locale.ROOT), uuid));
+        }
+        return result;
+    }
+
+    // Visits every stored grant without holding the whole table in memory.
+    void forEach(AccessVisitor visitor) throws AccessStoreException;
+
+    // One keyset page of grants that are permanent or end after now, ordered by key, with after < key <= upTo in the
+    // unsigned byte order of the BINARY(16) primary key; a null bound is open.
+    default List<PlayerAccess> findActivePage(long nowMillis, UUID after, UUID upTo, int limit) throws AccessStoreException {
+        List<PlayerAccess> page = new ArrayList<>();
+        forEach(access -> {
+            UUID key = access.getPlayerUUID();
+            if ((after == null || GeneralUtils.compareKeys(key, after) > 0)
+                    && (upTo == null || GeneralUtils.compareKeys(key, upTo) <= 0)
+                    && (access.isPermaAccess() || access.getAccessEndMillis() > nowMillis)) {
+                page.add(access);
+            }
+        });
+
+        page.sort((left, right) -> GeneralUtils.compareKeys(left.getPlayerUUID(), right.getPlayerUUID()));
+        return page.size() > limit ? new ArrayList<>(page.subList(0, limit)) : page;
+    }
+
+    void save(PlayerAccess playerAccess) throws AccessStoreException;
+
+    boolean delete(UUID playerUUID) throws AccessStoreException;
+
+    // Applies mutations for distinct players in one unit of work; the result holds one "changed" flag per mutation.
+    default boolean[] applyBatch(List<AccessMutation> mutations) throws AccessStoreException {
+        boolean[] changed = new boolean[mutations.size()];
+        for (int i = 0; i < mutations.size(); i++) {
+            AccessMutation mutation = mutations.get(i);
+            if (mutation.isDelete()) {
+                changed[i] = delete(mutation.getPlayerUUID());
+            } else {
+                save(mutation.getAccess());
+                changed[i] = true;
+            }
+        }
+        return changed;
+    }
+
+    int deleteExpired(long cutoffMillis, int limit) throws AccessStoreException;
+
+    // Shared stores are read by several proxies and expose a change feed for AccessSyncTask.
+    default boolean isShared() {
+        return false;
+    }
+
+    default long currentVersion() throws AccessStoreException {
+        return 0L;
+    }
+
+    // Returns changes newer than sinceVersion in version order, never skipping one that is still in flight.
+    default List<AccessChange> changesSince(long sinceVersion, int limit) throws AccessStoreException {
+        return List.of();
+    }
+
+    default int pruneTombstones(int retentionHours, int limit) throws AccessStoreException {
+        return 0;
+    }
+
+    void close();
+
+    @FunctionalInterface
+    interface AccessVisitor {
+        void visit(PlayerAccess playerAccess) throws Exception;
+    }
+}
@@ -0,0 +1,12 @@
+package de.mecrytv.timeBasedAccess.database.store;
+
+public class AccessStoreException extends Exception {
+
+    public AccessStoreException(String message) {
+        super(message);
+    }
+
+    public AccessStoreException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
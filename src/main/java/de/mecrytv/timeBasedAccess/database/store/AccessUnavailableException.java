@@ -0,0 +1,9 @@
+package de.mecrytv.timeBasedAccess.database.store;
+
+// Thrown without touching the database while the circuit breaker is open and no snapshot can answer.
+public class AccessUnavailableException extends AccessStoreException {
+
+    public AccessUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,372 @@
+package de.mecrytv.timeBasedAccess.database.store;
+
+import de.mecrytv.timeBasedAccess.database.access.PlayerAccess;
+import de.mecrytv.timeBasedAccess.utils.GeneralUtils;
+import org.slf4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Single-proxy backend: an append-only log of put/delete records replayed into an in-memory index on start.
+public class LocalAccessStore implements AccessStore {
+
+    private static final String PUT = "P";
+    private static final String DELETE = "D";
+    private static final String SEPARATOR = "\t";
+
+    private final Path file;
+    private final boolean fsync;
+    private final Logger logger;
+
+    private final Map<UUID, PlayerAccess> entries = new ConcurrentHashMap<>();
+    private final Map<String, UUID> names = new ConcurrentHashMap<>();
+    // Keys in the store's key order, so warm-up pages are read by range instead of sorting everything per page.
+    private final NavigableSet<UUID> keys = new ConcurrentSkipListSet<>(GeneralUtils::compareKeys);
+    // Held across file writes and fsync, which would pin a virtual thread inside a synchronized block.
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private FileChannel channel;
+    private long recordCount;
+
+    public LocalAccessStore(Path file, boolean fsync, Logger logger) {
+        this.file = file;
+        this.fsync = fsync;
+        this.logger = logger;
+    }
+
+    @Override
+    public void init() throws AccessStoreException {
+        writeLock.lock();
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            if (Files.exists(file)) {
+                replay();
+            }
+            compact();
+            logger.info("Local access store loaded {} grants from {}", entries.size(), file.getFileName());
+        } catch (IOException e) {
+            throw new AccessStoreException("Could not open local access store " + file, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<PlayerAccess> find(UUID playerUUID) {
+        return Optional.ofNullable(entries.get(playerUUID));
+    }
+
+    @Override
+    public Map<UUID, PlayerAccess> findAll(Collection<UUID> playerUUIDs) {
+        Map<UUID, PlayerAccess> result = new HashMap<>();
+        for (UUID playerUUID : playerUUIDs) {
+            PlayerAccess access = entries.get(playerUUID);
+            if (access != null) {
+                result.put(playerUUID, access);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<UUID> findUUIDByName(String playerName) {
+        return Optional.ofNullable(names.get(playerName.toLowerCase(Locale.ROOT)));
+    }
+
+    @Override
+    public void forEach(AccessVisitor visitor) throws AccessStoreException {
+        try {
+            for (PlayerAccess access : entries.values()) {
+                visitor.visit(access);
+            }
+        } catch (Exception e) {
+            throw new AccessStoreException("Could not iterate local accesses", e);
+        }
+    }
+
+    @Override
+    public List<PlayerAccess> findActivePage(long nowMillis, UUID after, UUID upTo, int limit) {
+        NavigableSet<UUID> range = keys;
+        if (after != null) {
+            range = range.tailSet(after, false);
+        }
+        if (upTo != null) {
+            range = range.headSet(upTo, true);
+        }
+
+        List<PlayerAccess> page = new ArrayList<>(Math.min(limit, 1024));
+        for (UUID key : range) {
+            if (page.size() >= limit) {
+                break;
+            }
+            PlayerAccess access = entries.get(key);
+            if (access != null && (access.isPermaAccess() || access.getAccessEndMillis() > nowMillis)) {
+                page.add(access);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public void save(PlayerAccess playerAccess) throws AccessStoreException {
+        writeLock.lock();
+        try {
+            append(encode(playerAccess));
+            index(playerAccess);
+            compactIfLarge();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean delete(UUID playerUUID) throws AccessStoreException {
+        writeLock.lock();
+        try {
+            if (!entries.containsKey(playerUUID)) {
+                return false;
+            }
+            append(DELETE + SEPARATOR + playerUUID);
+            unindex(playerUUID);
+            compactIfLarge();
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean[] applyBatch(List<AccessMutation> mutations) throws AccessStoreException {
+        writeLock.lock();
+        try {
+            boolean[] changed = new boolean[mutations.size()];
+            StringBuilder records = new StringBuilder();
+
+            for (int i = 0; i < mutations.size(); i++) {
+                AccessMutation mutation = mutations.get(i);
+                if (mutation.isDelete()) {
+                    changed[i] = entries.containsKey(mutation.getPlayerUUID());
+                    if (changed[i]) {
+                        records.append(DELETE).append(SEPARATOR).append(mutation.getPlayerUUID()).append('\n');
+                    }
+                } else {
+                    changed[i] = true;
+                    records.append(encode(mutation.getAccess())).append('\n');
+                }
+            }
+
+            if (records.length() > 0) {
+                records.setLength(records.length() - 1);
+                append(records.toString(), mutations.size());
+            }
+
+            for (AccessMutation mutation : mutations) {
+                if (mutation.isDelete()) {
+                    unindex(mutation.getPlayerUUID());
+                } else {
+                    index(mutation.getAccess());
+                }
+            }
+            compactIfLarge();
+            return changed;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public int deleteExpired(long cutoffMillis, int limit) throws AccessStoreException {
+        writeLock.lock();
+        try {
+            List<UUID> expired = new ArrayList<>();
+            for (PlayerAccess access : entries.values()) {
+                if (expired.size() >= limit) {
+                    break;
+                }
+                if (!access.isPermaAccess() && access.getAccessEndMillis() < cutoffMillis) {
+                    expired.add(access.getPlayerUUID());
+                }
+            }
+
+            for (UUID playerUUID : expired) {
+                append(DELETE + SEPARATOR + playerUUID);
+                unindex(playerUUID);
+            }
+            compactIfLarge();
+            return expired.size();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            if (channel == null) {
+                return;
+            }
+            try {
+                channel.force(true);
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Error closing local access store: {}", e.getMessage());
+            }
+            channel = null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void append(String record) throws AccessStoreException {
+        append(record, 1);
+    }
+
+    private void append(String record, int records) throws AccessStoreException {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap((record + "\n").getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+
+            recordCount += records;
+        } catch (IOException e) {
+            throw new AccessStoreException("Could not write to local access store " + file, e);
+        }
+    }
+
+    // Runs after the in-memory index is updated, so the compacted log holds the write that triggered it.
+    private void compactIfLarge() {
+        if (recordCount <= entries.size() * 2L + 1024) {
+            return;
+        }
+        try {
+            compact();
+        } catch (IOException e) {
+            // The records are already written; try again once the log has grown as much once more.
+            recordCount = entries.size();
+            logger.warn("Could not compact local access store {}: {}", file.getFileName(), e.getMessage());
+        }
+    }
+
+    private void replay() throws IOException {
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                try {
+                    String[] parts = line.split(SEPARATOR);
+                    if (PUT.equals(parts[0])) {
+                        index(decode(parts));
+                    } else if (DELETE.equals(parts[0])) {
+                        unindex(UUID.fromString(parts[1]));
+                    }
+                } catch (RuntimeException e) {
+                    // A torn final record after a crash is expected; anything else is worth knowing about.
+                    logger.warn("Skipping unreadable record {} in {}: {}", lineNumber, file.getFileName(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    // The current log stays open for appends until the compacted copy is complete on disk.
+    private void compact() throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (PlayerAccess access : entries.values()) {
+                    writer.write(encode(access));
+                    writer.write('\n');
+                }
+            }
+            try (FileChannel tempChannel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                tempChannel.force(true);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        // Some platforms cannot replace a file that is still open.
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            // The compacted log after a successful move, otherwise the old one again.
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        recordCount = entries.size();
+    }
+
+    private void index(PlayerAccess access) {
+        PlayerAccess previous = entries.put(access.getPlayerUUID(), access);
+        keys.add(access.getPlayerUUID());
+        if (previous != null) {
+            names.remove(previous.getPlayerName().toLowerCase(Locale.ROOT), previous.getPlayerUUID());
+        }
+        names.put(access.getPlayerName().toLowerCase(Locale.ROOT), access.getPlayerUUID());
+    }
+
+    private void unindex(UUID playerUUID) {
+        PlayerAccess previous = entries.remove(playerUUID);
+        keys.remove(playerUUID);
+        if (previous != null) {
+            names.remove(previous.getPlayerName().toLowerCase(Locale.ROOT), playerUUID);
+        }
+    }
+
+    private static String encode(PlayerAccess access) {
+        return PUT + SEPARATOR + access.getPlayerUUID()
+                + SEPARATOR + access.getPlayerName()
+                + SEPARATOR + access.getAccessStartMillis()
+                + SEPARATOR + access.getAccessEndMillis()
+                + SEPARATOR + access.isPermaAccess()
+                + SEPARATOR + GeneralUtils.joinServerScopes(access.getServerScopes());
+    }
+
+    // Records without the scope column grant every server.
+    private static PlayerAccess decode(String[] parts) {
+        return new PlayerAccess(
+                UUID.fromString(parts[1]),
+                parts[2],
+                Long.parseLong(parts[3]),
+                Long.parseLong(parts[4]),
+                Boolean.parseBoolean(parts[5]),
+                parts.length > 6 ? GeneralUtils.parseServerScopes(parts[6]) : Set.of()
+        );
+    }
+}
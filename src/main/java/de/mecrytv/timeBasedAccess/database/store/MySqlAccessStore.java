@@ -0,0 +1,512 @@
+package de.mecrytv.timeBasedAccess.database.store;
+
+import de.mecrytv.timeBasedAccess.database.DatabaseManager;
+import de.mecrytv.timeBasedAccess.database.access.PlayerAccess;
+import de.mecrytv.timeBasedAccess.database.migration.AccessMigrations;
+import de.mecrytv.timeBasedAccess.database.migration.SchemaMigrator;
+import de.mecrytv.timeBasedAccess.utils.GeneralUtils;
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+public class MySqlAccessStore implements AccessStore {
+
+    private static final int BULK_CHUNK_SIZE = 500;
+    private static final String SELECT_ACCESS = "SELECT playerUUID, playerName, accessStartMillis, accessEndMillis, permaAccess, serverScopes FROM tbaccess";
+    private static final String SELECT_ACCESS_VERSIONED = "SELECT playerUUID, playerName, accessStartMillis, accessEndMillis, permaAccess, serverScopes, version FROM tbaccess";
+    private static final String UPSERT_ACCESS = "INSERT INTO tbaccess (playerUUID, playerName, accessStartMillis, accessEndMillis, permaAccess, serverScopes, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE playerName = VALUES(playerName), accessStartMillis = VALUES(accessStartMillis), " +
+            "accessEndMillis = VALUES(accessEndMillis), permaAccess = VALUES(permaAccess), serverScopes = VALUES(serverScopes), version = VALUES(version)";
+
+    private final DatabaseManager databaseManager;
+    private final ZoneId legacyZone;
+    private final Logger logger;
+
+    public MySqlAccessStore(DatabaseManager databaseManager, ZoneId legacyZone, Logger logger) {
+        this.databaseManager = databaseManager;
+        this.legacyZone = legacyZone;
+        this.logger = logger;
+    }
+
+    @Override
+    public void init() throws AccessStoreException {
+        try (Connection connection = databaseManager.getConnection()) {
+            SchemaMigrator migrator = new SchemaMigrator(logger, AccessMigrations.all(legacyZone));
+            int version = migrator.migrate(connection);
+            logger.info("tbaccess schema is at version {}", version);
+        } catch (SQLException e) {
+            throw new AccessStoreException("Schema migration failed", e);
+        }
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    @Override
+    public Optional<PlayerAccess> find(UUID playerUUID) throws AccessStoreException {
+        try (Connection connection = databaseManager.getReadConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT_ACCESS + " WHERE playerUUID = ?")) {
+
+            statement.setBytes(1, GeneralUtils.uuidToBytes(playerUUID));
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return Optional.of(mapRow(resultSet));
+                }
+            }
+            return Optional.empty();
+
+        } catch (SQLException e) {
+            throw new AccessStoreException("Could not load access of " + playerUUID, e);
+        }
+    }
+
+    @Override
+    public Map<UUID, PlayerAccess> findAll(Collection<UUID> playerUUIDs) throws AccessStoreException {
+        Map<UUID, PlayerAccess> result = new HashMap<>();
+        List<UUID> uuids = new ArrayList<>(playerUUIDs);
+
+        try (Connection connection = databaseManager.getReadConnection()) {
+            for (int from = 0; from < uuids.size(); from += BULK_CHUNK_SIZE) {
+                loadChunk(connection, uuids.subList(from, Math.min(from + BULK_CHUNK_SIZE, uuids.size())), result);
+            }
+        } catch (SQLException e) {
+            throw new AccessStoreException("Could not load " + uuids.size() + " accesses", e);
+        }
+
+        return result;
+    }
+
+    private void loadChunk(Connection connection, List<UUID> chunk, Map<UUID, PlayerAccess> result) throws SQLException {
+        StringBuilder sql = new StringBuilder(SELECT_ACCESS).append(" WHERE playerUUID IN (");
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+
+        try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+            for (int i = 0; i < chunk.size(); i++) {
+                statement.setBytes(i + 1, GeneralUtils.uuidToBytes(chunk.get(i)));
+            }
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    PlayerAccess access = mapRow(resultSet);
+                    result.put(access.getPlayerUUID(), access);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Optional<UUID> findUUIDByName(String playerName) throws AccessStoreException {
+        try (Connection connection = databaseManager.getReadConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT playerUUID FROM tbaccess WHERE playerName = ? ORDER BY accessStartMillis DESC LIMIT 1")) {
+
+            statement.setString(1, playerName);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return Optional.of(GeneralUtils.uuidFromBytes(resultSet.getBytes("playerUUID")));
+                }
+            }
+            return Optional.empty();
+
+        } catch (SQLException e) {
+            throw new AccessStoreException("Could not look up player name " + playerName, e);
+        }
+    }
+
+    @Override
+    public Map<String, UUID> findUUIDsByNames(Collection<String> playerNames) throws AccessStoreException {
+        Map<String, UUID> result = new HashMap<>();
+        List<String> names = new ArrayList<>(playerNames);
+
+        try (Connection connection = databaseManager.getReadConnection()) {
+            for (int from = 0; from < names.size(); from += BULK_CHUNK_SIZE) {
+                List<String> chunk = names.subList(from, Math.min(from + BULK_CHUNK_SIZE, names.size()));
+
+                StringBuilder sql = new StringBuilder("SELECT playerUUID, playerName FROM tbaccess WHERE playerName IN (");
+                for (int i = 0; i < chunk.size(); i++) {
+                    sql.append(i == 0 ? "?" : ", ?");
+                }
+                sql.append(") ORDER BY accessStartMillis");
+
+                try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        statement.setString(i + 1, chunk.get(i));
+                    }
+
+                    // Ordered by start time, so the newest grant for a reused name wins.
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            result.put(resultSet.getString("playerName").toLowerCase(Locale.ROOT),
+                                    GeneralUtils.uuidFromBytes(resultSet.getBytes("playerUUID")));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new AccessStoreException("Could not look up " + names.size() + " player names", e);
+        }
+
+        return result;
+    }
+
+    @Override
+    public List<PlayerAccess> findActivePage(long nowMillis, UUID after, UUID upTo, int limit) throws AccessStoreException {
+        StringBuilder sql = new StringBuilder(SELECT_ACCESS).append(" WHERE (permaAccess = TRUE OR accessEndMillis > ?)");
+        if (after != null) {
+            sql.append(" AND playerUUID > ?");
+        }
+        if (upTo != null) {
+            sql.append(" AND playerUUID <= ?");
+        }
+        sql.append(" ORDER BY playerUUID LIMIT ?");
+
+        try (Connection connection = databaseManager.getReadConnection();
+             PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+
+            int index = 1;
+            statement.setLong(index++, nowMillis);
+            if (after != null) {
+                statement.setBytes(index++, GeneralUtils.uuidToBytes(after));
+            }
+            if (upTo != null) {
+                statement.setBytes(index++, GeneralUtils.uuidToBytes(upTo));
+            }
+            statement.setInt(index, limit);
+
+            List<PlayerAccess> page = new ArrayList<>(limit);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    page.add(mapRow(resultSet));
+                }
+            }
+            return page;
+
+        } catch (SQLException e) {
+            throw new AccessStoreException("Could not load active accesses", e);
+        }
+    }
+
+    @Override
+    public void forEach(AccessVisitor visitor) throws AccessStoreException {
+        // Streamed from the primary: the full index load and the snapshot pair it with change versions read there, and
+        // a lagging replica would miss changes that the replay after the load then skips as already seen.
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     SELECT_ACCESS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            // Integer.MIN_VALUE puts Connector/J into row-by-row streaming mode.
+            statement.setFetchSize(Integer.MIN_VALUE);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    visitor.visit(mapRow(resultSet));
+                }
+            }
+
+        } catch (AccessStoreException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new AccessStoreException("Could not stream accesses", e);
+        }
+    }
+
+    @Override
+    public void save(PlayerAccess playerAccess) throws AccessStoreException {
+        try (Connection connection = databaseManager.getConnection()) {
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement statement = connection.prepareStatement(UPSERT_ACCESS)) {
+
+                statement.setBytes(1, GeneralUtils.uuidToBytes(playerAccess.getPlayerUUID()));
+                statement.setString(2, playerAccess.getPlayerName());
+                statement.setLong(3, playerAccess.getAccessStartMillis());
+                statement.setLong(4, playerAccess.getAccessEndMillis());
+                statement.setBoolean(5, playerAccess.isPermaAccess());
+                statement.setString(6, GeneralUtils.joinServerScopes(playerAccess.getServerScopes()));
+                statement.setLong(7, nextVersion(connection));
+
+                statement.executeUpdate();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            throw new AccessStoreException("Could not save access of " + playerAccess.getPlayerUUID(), e);
+        }
+    }
+
+    @Override
+    public boolean delete(UUID playerUUID) throws AccessStoreException {
+        try (Connection connection = databaseManager.getConnection()) {
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement delete = connection.prepareStatement("DELETE FROM tbaccess WHERE playerUUID = ?");
+                 PreparedStatement tombstone = connection.prepareStatement(
+                         "INSERT INTO tbaccess_tombstones (playerUUID, version) VALUES (?, ?) " +
+                                 "ON DUPLICATE KEY UPDATE version = VALUES(version), deletedAt = CURRENT_TIMESTAMP")) {
+
+                // The sequence row is locked before the access row, in the same order as save and applyBatch; a
+                // version reserved for a player without a grant just leaves a gap.
+                long version = nextVersion(connection);
+                byte[] uuidBytes = GeneralUtils.uuidToBytes(playerUUID);
+                delete.setBytes(1, uuidBytes);
+                int rowsAffected = delete.executeUpdate();
+
+                if (rowsAffected > 0) {
+                    tombstone.setBytes(1, uuidBytes);
+                    tombstone.setLong(2, version);
+                    tombstone.executeUpdate();
+                }
+                connection.commit();
+                return rowsAffected > 0;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            throw new AccessStoreException("Could not delete access of " + playerUUID, e);
+        }
+    }
+
+    @Override
+    public boolean[] applyBatch(List<AccessMutation> mutations) throws AccessStoreException {
+        boolean[] changed = new boolean[mutations.size()];
+        if (mutations.isEmpty()) {
+            return changed;
+        }
+
+        try (Connection connection = databaseManager.getConnection()) {
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement upsert = connection.prepareStatement(UPSERT_ACCESS);
+                 PreparedStatement delete = connection.prepareStatement("DELETE FROM tbaccess WHERE playerUUID = ?");
+                 PreparedStatement tombstone = connection.prepareStatement(
+                         "INSERT INTO tbaccess_tombstones (playerUUID, version) VALUES (?, ?) " +
+                                 "ON DUPLICATE KEY UPDATE version = VALUES(version), deletedAt = CURRENT_TIMESTAMP")) {
+
+                long version = reserveVersions(connection, mutations.size()) - mutations.size();
+                List<Integer> deleteIndexes = new ArrayList<>();
+                List<Long> deleteVersions = new ArrayList<>();
+
+                for (int i = 0; i < mutations.size(); i++) {
+                    AccessMutation mutation = mutations.get(i);
+                    byte[] uuidBytes = GeneralUtils.uuidToBytes(mutation.getPlayerUUID());
+                    version++;
+
+                    if (mutation.isDelete()) {
+                        delete.setBytes(1, uuidBytes);
+                        delete.addBatch();
+                        deleteIndexes.add(i);
+                        deleteVersions.add(version);
+                    } else {
+                        PlayerAccess access = mutation.getAccess();
+                        upsert.setBytes(1, uuidBytes);
+                        upsert.setString(2, access.getPlayerName());
+                        upsert.setLong(3, access.getAccessStartMillis());
+                        upsert.setLong(4, access.getAccessEndMillis());
+                        upsert.setBoolean(5, access.isPermaAccess());
+                        upsert.setString(6, GeneralUtils.joinServerScopes(access.getServerScopes()));
+                        upsert.setLong(7, version);
+                        upsert.addBatch();
+                        changed[i] = true;
+                    }
+                }
+
+                upsert.executeBatch();
+                if (!deleteIndexes.isEmpty()) {
+                    // Deletes that matched no row leave no tombstone, as in delete().
+                    int[] deleted = delete.executeBatch();
+                    boolean anyDeleted = false;
+                    for (int i = 0; i < deleteIndexes.size(); i++) {
+                        int index = deleteIndexes.get(i);
+                        changed[index] = deleted[i] != 0;
+                        if (changed[index]) {
+                            tombstone.setBytes(1, GeneralUtils.uuidToBytes(mutations.get(index).getPlayerUUID()));
+                            tombstone.setLong(2, deleteVersions.get(i));
+                            tombstone.addBatch();
+                            anyDeleted = true;
+                        }
+                    }
+                    if (anyDeleted) {
+                        tombstone.executeBatch();
+                    }
+                }
+
+                connection.commit();
+                return changed;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+            throw new AccessStoreException("Could not apply batch of " + mutations.size() + " mutations", e);
+        }
+    }
+
+    @Override
+    public int deleteExpired(long cutoffMillis, int limit) throws AccessStoreException {
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "DELETE FROM tbaccess WHERE permaAccess = FALSE AND accessEndMillis < ? LIMIT ?")) {
+
+            statement.setLong(1, cutoffMillis);
+            statement.setInt(2, limit);
+            return statement.executeUpdate();
+
+        } catch (SQLException e) {
+            throw new AccessStoreException("Could not delete expired accesses", e);
+        }
+    }
+
+    private long nextVersion(Connection connection) throws SQLException {
+        return reserveVersions(connection, 1);
+    }
+
+    // Returns the highest of count new versions. The sequence row stays locked until commit,
+    // so versions become visible in commit order.
+    private long reserveVersions(Connection connection, int count) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE tbaccess_sequence SET value = LAST_INSERT_ID(value + " + count + ") WHERE name = 'change'");
+             PreparedStatement select = connection.prepareStatement("SELECT LAST_INSERT_ID()")) {
+
+            if (update.executeUpdate() != 1) {
+                throw new SQLException("tbaccess_sequence is missing the 'change' row");
+            }
+
+            try (ResultSet resultSet = select.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        }
+    }
+
+    @Override
+    public long currentVersion() throws AccessStoreException {
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT value FROM tbaccess_sequence WHERE name = 'change'");
+             ResultSet resultSet = statement.executeQuery()) {
+
+            return resultSet.next() ? resultSet.getLong(1) : 0L;
+
+        } catch (SQLException e) {
+            throw new AccessStoreException("Could not read change version", e);
+        }
+    }
+
+    @Override
+    public List<AccessChange> changesSince(long sinceVersion, int limit) throws AccessStoreException {
+        List<AccessChange> updates = new ArrayList<>();
+        List<AccessChange> removals = new ArrayList<>();
+
+        try (Connection connection = databaseManager.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+
+            try (PreparedStatement rows = connection.prepareStatement(
+                    SELECT_ACCESS_VERSIONED + " WHERE version > ? ORDER BY version LIMIT ?");
+                 PreparedStatement tombstones = connection.prepareStatement(
+                         "SELECT playerUUID, version FROM tbaccess_tombstones WHERE version > ? ORDER BY version LIMIT ?")) {
+
+                rows.setLong(1, sinceVersion);
+                rows.setInt(2, limit);
+                try (ResultSet resultSet = rows.executeQuery()) {
+                    while (resultSet.next()) {
+                        updates.add(AccessChange.updated(resultSet.getLong("version"), mapRow(resultSet)));
+                    }
+                }
+
+                tombstones.setLong(1, sinceVersion);
+                tombstones.setInt(2, limit);
+                try (ResultSet resultSet = tombstones.executeQuery()) {
+                    while (resultSet.next()) {
+                        removals.add(AccessChange.removed(resultSet.getLong("version"),
+                                GeneralUtils.uuidFromBytes(resultSet.getBytes("playerUUID"))));
+                    }
+                }
+            } finally {
+                connection.commit();
+                connection.setReadOnly(false);
+            }
+
+        } catch (SQLException e) {
+            throw new AccessStoreException("Could not poll access changes", e);
+        }
+
+        // When a side hit the limit, stop at its last version so nothing in between is skipped.
+        long highWater = Long.MAX_VALUE;
+        if (updates.size() == limit) {
+            highWater = updates.get(updates.size() - 1).getVersion();
+        }
+        if (removals.size() == limit) {
+            highWater = Math.min(highWater, removals.get(removals.size() - 1).getVersion());
+        }
+
+        List<AccessChange> changes = new ArrayList<>(updates.size() + removals.size());
+        for (AccessChange change : updates) {
+            if (change.getVersion() <= highWater) {
+                changes.add(change);
+            }
+        }
+        for (AccessChange change : removals) {
+            if (change.getVersion() <= highWater) {
+                changes.add(change);
+            }
+        }
+        changes.sort(Comparator.comparingLong(AccessChange::getVersion));
+        return changes;
+    }
+
+    @Override
+    public int pruneTombstones(int retentionHours, int limit) throws AccessStoreException {
+        try (Connection connection = databaseManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "DELETE FROM tbaccess_tombstones WHERE deletedAt < NOW() - INTERVAL ? HOUR LIMIT ?")) {
+
+            statement.setInt(1, retentionHours);
+            statement.setInt(2, limit);
+            return statement.executeUpdate();
+
+        } catch (SQLException e) {
+            throw new AccessStoreException("Could not prune tombstones", e);
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private PlayerAccess mapRow(ResultSet resultSet) throws SQLException {
+        return new PlayerAccess(
+                GeneralUtils.uuidFromBytes(resultSet.getBytes("playerUUID")),
+                resultSet.getString("playerName"),
+                resultSet.getLong("accessStartMillis"),
+                resultSet.getLong("accessEndMillis"),
+                resultSet.getBoolean("permaAccess"),
+                GeneralUtils.parseServerScopes(resultSet.getString("serverScopes"))
+        );
+    }
+}
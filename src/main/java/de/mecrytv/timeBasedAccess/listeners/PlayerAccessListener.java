@@ -1,37 +1,55 @@
 package de.mecrytv.timeBasedAccess.listeners;
 
+import com.velocitypowered.api.event.Continuation;
+import com.velocitypowered.api.event.EventTask;
 import com.velocitypowered.api.event.ResultedEvent;
 import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
 import com.velocitypowered.api.event.connection.LoginEvent;
 import com.velocitypowered.api.proxy.Player;
-import com.velocitypowered.api.scheduler.ScheduledTask;
 import de.mecrytv.timeBasedAccess.TimeBasedAccess;
+import de.mecrytv.timeBasedAccess.database.access.AccessEvaluator;
 import de.mecrytv.timeBasedAccess.database.access.AccessManager;
+import de.mecrytv.timeBasedAccess.database.access.AccessStatus;
+import de.mecrytv.timeBasedAccess.database.access.AdmissionGate;
 import de.mecrytv.timeBasedAccess.database.access.PlayerAccess;
+import de.mecrytv.timeBasedAccess.database.store.AccessOverloadedException;
+import de.mecrytv.timeBasedAccess.database.store.AccessStoreException;
+import de.mecrytv.timeBasedAccess.database.store.AccessUnavailableException;
+import de.mecrytv.timeBasedAccess.scheduler.AccessExpiryScheduler;
+import de.mecrytv.timeBasedAccess.scheduler.ExpiryWarnings;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.spongepowered.configurate.ConfigurationNode;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.RejectedExecutionException;
 
 public class PlayerAccessListener {
 
-    private static final MiniMessage MINI_MESSAGE = MiniMessage.miniMessage();
     private static final AccessManager ACCESS_MANAGER = TimeBasedAccess.getAccessManager();
     private static final UUID BYPASS_UUID = UUID.fromString("5269cc22-14b3-443a-9519-92ff373fd76c");
+    private static final long RECHECK_SECONDS = 30;
 
-    private ScheduledTask accessCheckTask;
+    private final AccessExpiryScheduler expiryScheduler;
 
     public PlayerAccessListener() {
+        ConfigurationNode warningConfig = TimeBasedAccess.getInstance().getConfig().node("warnings");
+        ExpiryWarnings warnings = warningConfig.node("enabled").getBoolean(true) ? new ExpiryWarnings(warningConfig) : null;
+
+        expiryScheduler = new AccessExpiryScheduler(this::handleExpiredPlayers, TimeBasedAccess.getClock(), warnings);
+        ACCESS_MANAGER.addChangeListener(expiryScheduler);
+        TimeBasedAccess.getMetrics().registerGauge("tbaccess_expiry_tracked_players", "gauge",
+                "Online players with a pending access deadline", expiryScheduler::getTrackedCount);
+        TimeBasedAccess.getMetrics().registerGauge("tbaccess_expiry_countdown_players", "gauge",
+                "Online players in the final expiry countdown", expiryScheduler::getCountdownCount);
         startAccessCheckScheduler();
     }
 
     @Subscribe
-    public void onLogin(LoginEvent event) {
+    public EventTask onLogin(LoginEvent event) {
         Player player = event.getPlayer();
 
         if (player.getUniqueId().equals(BYPASS_UUID)) {
@@ -40,50 +58,141 @@ public class PlayerAccessListener {
                     player.getUsername(),
                     player.getUniqueId()
             );
-            return;
+            return null;
         }
 
-        AccessCheckResult result = checkPlayerAccess(player);
-
-        switch (result.getStatus()) {
-            case NO_ACCESS:
-                denyAccess(event, createNoAccessMessage());
-                break;
-            case EXPIRED:
-                denyAccess(event, createExpiredAccessMessage(result.getPlayerAccess()));
-                break;
-            case NOT_STARTED:
-                denyAccess(event, createNotStartedMessage(result.getPlayerAccess()));
-                break;
-            case VALID:
-                TimeBasedAccess.getInstance().getLogger().info(
-                        "Player {} ({}) logged in with valid access",
-                        player.getUsername(),
-                        player.getUniqueId()
-                );
-                break;
+        AdmissionGate gate = ACCESS_MANAGER.getAdmissionGate();
+        if (gate != null && !gate.tryEnter()) {
+            denyBusy(event, player, "queue_full");
+            return null;
         }
+
+        return EventTask.withContinuation(continuation -> {
+            try {
+                TimeBasedAccess.getIoExecutor().execute(() -> handleLogin(event, player, continuation, gate));
+            } catch (RejectedExecutionException e) {
+                if (gate != null) {
+                    gate.exit();
+                }
+                continuation.resumeWithException(e);
+            }
+        });
     }
 
-    private void startAccessCheckScheduler() {
-        accessCheckTask = TimeBasedAccess.getInstance().getServer().getScheduler()
-                .buildTask(TimeBasedAccess.getInstance(), this::checkOnlinePlayersAccess)
-                .repeat(1, TimeUnit.SECONDS)
-                .schedule();
+    private void handleLogin(LoginEvent event, Player player, Continuation continuation, AdmissionGate gate) {
+        try {
+            long start = System.nanoTime();
+            AccessCheckResult result;
+            try {
+                result = checkPlayerAccess(player);
+            } catch (AccessOverloadedException e) {
+                denyBusy(event, player, "overloaded");
+                continuation.resume();
+                return;
+            } catch (AccessUnavailableException e) {
+                denyBusy(event, player, "unavailable");
+                continuation.resume();
+                return;
+            } catch (AccessStoreException e) {
+                TimeBasedAccess.getInstance().getLogger().warn("Access lookup for {} failed: {}", player.getUsername(), e.getMessage());
+                denyBusy(event, player, "error");
+                continuation.resume();
+                return;
+            }
+            TimeBasedAccess.getMetrics().recordLoginCheck(result.getStatus(), System.nanoTime() - start);
+
+            // The snapshot may predate a new or extended grant, so nothing read from it turns the player away for good.
+            if (result.getStatus() != AccessStatus.VALID && ACCESS_MANAGER.isDegraded()) {
+                denyBusy(event, player, "degraded");
+                continuation.resume();
+                return;
+            }
+
+            switch (result.getStatus()) {
+                case NO_ACCESS:
+                    denyAccess(event, createNoAccessMessage());
+                    break;
+                case EXPIRED:
+                    denyAccess(event, createExpiredAccessMessage(result.getPlayerAccess()));
+                    break;
+                case NOT_STARTED:
+                    denyAccess(event, createNotStartedMessage(result.getPlayerAccess()));
+                    break;
+                case VALID:
+                    TimeBasedAccess.getServerAccess().track(result.getPlayerAccess());
+                    expiryScheduler.track(result.getPlayerAccess());
+                    TimeBasedAccess.getInstance().getLogger().info(
+                            "Player {} ({}) logged in with valid access",
+                            player.getUsername(),
+                            player.getUniqueId()
+                    );
+                    break;
+            }
+        } catch (Throwable t) {
+            continuation.resumeWithException(t);
+            return;
+        } finally {
+            if (gate != null) {
+                gate.exit();
+            }
+        }
 
-        TimeBasedAccess.getInstance().getLogger().info("Access check scheduler started (runs every second)");
+        continuation.resume();
     }
 
-    private void checkOnlinePlayersAccess() {
-        TimeBasedAccess.getInstance().getServer().getAllPlayers().forEach(player -> {
-            if (player.getUniqueId().equals(BYPASS_UUID)) {
-                return;
+    // A lookup that could not run right now is not a verdict on the player's access, so ask them to retry.
+    private void denyBusy(LoginEvent event, Player player, String reason) {
+        TimeBasedAccess.getMetrics().recordLoginRejected(reason);
+        denyAccess(event, TimeBasedAccess.getMessages().busy());
+        TimeBasedAccess.getInstance().getLogger().info(
+                "Player {} ({}) was asked to retry, access check rejected ({})",
+                player.getUsername(),
+                player.getUniqueId(),
+                reason
+        );
+    }
+
+    @Subscribe
+    public void onDisconnect(DisconnectEvent event) {
+        expiryScheduler.untrack(event.getPlayer().getUniqueId());
+    }
+
+    private void startAccessCheckScheduler() {
+        expiryScheduler.start();
+        TimeBasedAccess.getInstance().getLogger().info("Access expiry scheduler started (deadline based)");
+    }
+
+    private void handleExpiredPlayers(List<UUID> playerUUIDs) {
+        Map<UUID, PlayerAccess> accesses;
+        try {
+            accesses = ACCESS_MANAGER.loadPlayerAccesses(playerUUIDs);
+        } catch (AccessStoreException e) {
+            TimeBasedAccess.getInstance().getLogger().warn(
+                    "Could not recheck {} players, trying again in {} s: {}", playerUUIDs.size(), RECHECK_SECONDS, e.getMessage());
+            playerUUIDs.forEach(playerUUID -> expiryScheduler.recheckLater(playerUUID, RECHECK_SECONDS));
+            return;
+        }
+        boolean degraded = ACCESS_MANAGER.isDegraded();
+        // The deadlines fired on the exact clock; the coarse one may still be just before them.
+        long nowMillis = TimeBasedAccess.getClock().millis();
+
+        for (UUID playerUUID : playerUUIDs) {
+            Optional<Player> optionalPlayer = TimeBasedAccess.getInstance().getServer().getPlayer(playerUUID);
+            if (optionalPlayer.isEmpty()) {
+                expiryScheduler.untrack(playerUUID);
+                continue;
             }
 
-            AccessCheckResult result = checkPlayerAccess(player);
+            Player player = optionalPlayer.get();
+            AccessCheckResult result = checkPlayerAccess(player, Optional.ofNullable(accesses.get(playerUUID)), nowMillis);
 
-            if (result.getStatus() == AccessStatus.EXPIRED) {
+            // Nobody is kicked on snapshot data; a grant may have been extended since it was written.
+            if (degraded && result.getStatus() != AccessStatus.VALID) {
+                expiryScheduler.recheckLater(playerUUID, RECHECK_SECONDS);
+            } else if (result.getStatus() == AccessStatus.EXPIRED) {
+                expiryScheduler.untrack(playerUUID);
                 player.disconnect(createExpiredAccessMessage(result.getPlayerAccess()));
+                TimeBasedAccess.getMetrics().recordKick("expired");
 
                 TimeBasedAccess.getInstance().getLogger().info(
                         "Player {} ({}) was kicked due to expired access",
@@ -91,41 +200,35 @@ public class PlayerAccessListener {
                         player.getUniqueId()
                 );
             } else if (result.getStatus() == AccessStatus.NO_ACCESS) {
+                expiryScheduler.untrack(playerUUID);
                 player.disconnect(createNoAccessMessage());
+                TimeBasedAccess.getMetrics().recordKick("removed");
 
                 TimeBasedAccess.getInstance().getLogger().info(
                         "Player {} ({}) was kicked due to removed access",
                         player.getUsername(),
                         player.getUniqueId()
                 );
+            } else {
+                TimeBasedAccess.getServerAccess().track(result.getPlayerAccess());
+                expiryScheduler.track(result.getPlayerAccess());
             }
-        });
-    }
-
-    private AccessCheckResult checkPlayerAccess(Player player) {
-        Optional<PlayerAccess> optionalAccess = ACCESS_MANAGER.getPlayerAccess(player.getUniqueId());
-
-        if (optionalAccess.isEmpty()) {
-            return new AccessCheckResult(AccessStatus.NO_ACCESS, null);
         }
+    }
 
-        PlayerAccess playerAccess = optionalAccess.get();
-        LocalDateTime now = LocalDateTime.now();
+    private AccessCheckResult checkPlayerAccess(Player player) throws AccessStoreException {
+        return checkPlayerAccess(player, ACCESS_MANAGER.loadPlayerAccess(player.getUniqueId()), TimeBasedAccess.getClock().coarseMillis());
+    }
 
-        if (playerAccess.isPermaAccess()) {
-            return new AccessCheckResult(AccessStatus.VALID, playerAccess);
-        }
+    private AccessCheckResult checkPlayerAccess(Player player, Optional<PlayerAccess> optionalAccess, long nowMillis) {
+        PlayerAccess playerAccess = optionalAccess.orElse(null);
+        AccessStatus status = AccessEvaluator.evaluate(playerAccess, nowMillis);
 
-        if (now.isAfter(playerAccess.getAccessEndTime())) {
+        if (status == AccessStatus.EXPIRED && !ACCESS_MANAGER.isDegraded()) {
             ACCESS_MANAGER.removePlayerAccess(player.getUniqueId());
-            return new AccessCheckResult(AccessStatus.EXPIRED, playerAccess);
-        }
-
-        if (now.isBefore(playerAccess.getAccessStartTime())) {
-            return new AccessCheckResult(AccessStatus.NOT_STARTED, playerAccess);
         }
 
-        return new AccessCheckResult(AccessStatus.VALID, playerAccess);
+        return new AccessCheckResult(status, playerAccess);
     }
 
     private void denyAccess(LoginEvent event, Component disconnectMessage) {
@@ -133,82 +236,21 @@ public class PlayerAccessListener {
     }
 
     private Component createNoAccessMessage() {
-        return MINI_MESSAGE.deserialize(
-                "<gradient:#ff5f6d:#ffc371><bold>═══════════════════════════════════════</bold></gradient>\n" +
-                        "<gradient:#ff9a9e:#fecfef><bold>            ZUGANG VERWEIGERT</bold></gradient>\n" +
-                        "<gradient:#ff5f6d:#ffc371><bold>═══════════════════════════════════════</bold></gradient>\n" +
-                        "\n" +
-                        "<gradient:#ffecd2:#fcb69f><bold>❌ Kein Zugang gefunden!</bold></gradient>\n" +
-                        "\n" +
-                        "<white>Du hast keinen gültigen Zugang zu diesem Server.</white>\n" +
-                        "<gray>Wende dich an einen Administrator, um Zugang zu erhalten.</gray>\n" +
-                        "\n" +
-                        "<gradient:#a8edea:#fed6e3><bold>💬 Support:</bold></gradient>\n" +
-                        "<yellow>• Discord: </yellow><aqua>discord.gg/example</aqua>\n" +
-                        "<yellow>• Website: </yellow><aqua>example.com</aqua>\n" +
-                        "\n" +
-                        "<gradient:#ff5f6d:#ffc371><bold>═══════════════════════════════════════</bold></gradient>"
-        );
+        return TimeBasedAccess.getMessages().noAccess();
     }
 
     private Component createExpiredAccessMessage(PlayerAccess playerAccess) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
-
-        return MINI_MESSAGE.deserialize(
-                "<gradient:#ff5f6d:#ffc371><bold>═══════════════════════════════════════</bold></gradient>\n" +
-                        "<gradient:#ff9a9e:#fecfef><bold>            ZUGANG ABGELAUFEN</bold></gradient>\n" +
-                        "<gradient:#ff5f6d:#ffc371><bold>═══════════════════════════════════════</bold></gradient>\n" +
-                        "\n" +
-                        "<gradient:#ffecd2:#fcb69f><bold>⏰ Dein Zugang ist abgelaufen!</bold></gradient>\n" +
-                        "\n" +
-                        "<white>Dein temporärer Zugang ist nicht mehr gültig.</white>\n" +
-                        "\n" +
-                        "<gradient:#a8edea:#fed6e3><bold>📅 Zugangs-Details:</bold></gradient>\n" +
-                        "<yellow>• Gültig bis: </yellow><red>" + playerAccess.getAccessEndTime().format(formatter) + "</red>\n" +
-                        "<yellow>• Aktuell: </yellow><white>" + LocalDateTime.now().format(formatter) + "</white>\n" +
-                        "\n" +
-                        "<gray>Wende dich an einen Administrator für eine Verlängerung.</gray>\n" +
-                        "\n" +
-                        "<gradient:#a8edea:#fed6e3><bold>💬 Support:</bold></gradient>\n" +
-                        "<yellow>• Discord: </yellow><aqua>discord.gg/example</aqua>\n" +
-                        "<yellow>• Website: </yellow><aqua>example.com</aqua>\n" +
-                        "\n" +
-                        "<gradient:#ff5f6d:#ffc371><bold>═══════════════════════════════════════</bold></gradient>"
-        );
+        return TimeBasedAccess.getMessages().expired(playerAccess);
     }
 
     private Component createNotStartedMessage(PlayerAccess playerAccess) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
-
-        return MINI_MESSAGE.deserialize(
-                "<gradient:#ff5f6d:#ffc371><bold>═══════════════════════════════════════</bold></gradient>\n" +
-                        "<gradient:#ff9a9e:#fecfef><bold>         ZUGANG NOCH NICHT AKTIV</bold></gradient>\n" +
-                        "<gradient:#ff5f6d:#ffc371><bold>═══════════════════════════════════════</bold></gradient>\n" +
-                        "\n" +
-                        "<gradient:#ffecd2:#fcb69f><bold>⏳ Dein Zugang ist noch nicht aktiv!</bold></gradient>\n" +
-                        "\n" +
-                        "<white>Dein Zugang wurde bereits erstellt, ist aber noch nicht gültig.</white>\n" +
-                        "\n" +
-                        "<gradient:#a8edea:#fed6e3><bold>📅 Zugangs-Details:</bold></gradient>\n" +
-                        "<yellow>• Aktiv ab: </yellow><green>" + playerAccess.getAccessStartTime().format(formatter) + "</green>\n" +
-                        "<yellow>• Aktiv bis: </yellow><green>" + playerAccess.getAccessEndTime().format(formatter) + "</green>\n" +
-                        "<yellow>• Aktuell: </yellow><white>" + LocalDateTime.now().format(formatter) + "</white>\n" +
-                        "\n" +
-                        "<gray>Versuche es später erneut!</gray>\n" +
-                        "\n" +
-                        "<gradient:#a8edea:#fed6e3><bold>💬 Support:</bold></gradient>\n" +
-                        "<yellow>• Discord: </yellow><aqua>discord.gg/example</aqua>\n" +
-                        "<yellow>• Website: </yellow><aqua>example.com</aqua>\n" +
-                        "\n" +
-                        "<gradient:#ff5f6d:#ffc371><bold>═══════════════════════════════════════</bold></gradient>"
-        );
+        return TimeBasedAccess.getMessages().notStarted(playerAccess);
     }
 
     public void shutdown() {
-        if (accessCheckTask != null) {
-            accessCheckTask.cancel();
-            TimeBasedAccess.getInstance().getLogger().info("Access check scheduler stopped");
-        }
+        ACCESS_MANAGER.removeChangeListener(expiryScheduler);
+        expiryScheduler.stop();
+        TimeBasedAccess.getInstance().getLogger().info("Access expiry scheduler stopped");
     }
 
     private static class AccessCheckResult {
@@ -228,11 +270,4 @@ public class PlayerAccessListener {
             return playerAccess;
         }
     }
-
-    private enum AccessStatus {
-        VALID,
-        NO_ACCESS,
-        EXPIRED,
-        NOT_STARTED
-    }
 }
\ No newline at end of file
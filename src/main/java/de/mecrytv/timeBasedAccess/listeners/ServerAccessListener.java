@@ -0,0 +1,175 @@
+package de.mecrytv.timeBasedAccess.listeners;
+
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.player.ServerPreConnectEvent;
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.proxy.ProxyServer;
+import com.velocitypowered.api.proxy.server.RegisteredServer;
+import de.mecrytv.timeBasedAccess.TimeBasedAccess;
+import de.mecrytv.timeBasedAccess.database.access.AccessChangeListener;
+import de.mecrytv.timeBasedAccess.database.access.PlayerAccess;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.serialize.SerializationException;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Server switches are decided from a set of allowed servers that is built when the player logs in and rebuilt when
+// their grant changes, so ServerPreConnectEvent costs two hash lookups and never reaches the store.
+public class ServerAccessListener implements AccessChangeListener {
+
+    private final ProxyServer server;
+    private final Map<String, Set<String>> groups;
+    private final Set<String> openServers;
+
+    // Only players whose grant is limited to some servers; a missing entry means every server is allowed.
+    private final Map<UUID, Set<String>> allowedServers = new ConcurrentHashMap<>();
+    private final LongAdder denied = new LongAdder();
+
+    public ServerAccessListener(ProxyServer server, ConfigurationNode config) {
+        this.server = server;
+        this.groups = readGroups(config.node("groups"));
+        this.openServers = Set.copyOf(readNames(config.node("open-servers")));
+    }
+
+    public void track(PlayerAccess playerAccess) {
+        if (playerAccess.isAllServers()) {
+            allowedServers.remove(playerAccess.getPlayerUUID());
+        } else {
+            allowedServers.put(playerAccess.getPlayerUUID(), resolve(playerAccess.getServerScopes()));
+        }
+    }
+
+    public void untrack(UUID playerUUID) {
+        allowedServers.remove(playerUUID);
+    }
+
+    public boolean isAllowed(UUID playerUUID, String serverName) {
+        Set<String> allowed = allowedServers.get(playerUUID);
+        return allowed == null || allowed.contains(serverName.toLowerCase(Locale.ROOT));
+    }
+
+    // Group names and registered servers, for tab completion.
+    public Set<String> getScopeNames() {
+        Set<String> names = new TreeSet<>(groups.keySet());
+        for (RegisteredServer registered : server.getAllServers()) {
+            names.add(registered.getServerInfo().getName().toLowerCase(Locale.ROOT));
+        }
+        return names;
+    }
+
+    public int getRestrictedCount() {
+        return allowedServers.size();
+    }
+
+    public long getDeniedCount() {
+        return denied.sum();
+    }
+
+    @Subscribe
+    public void onServerPreConnect(ServerPreConnectEvent event) {
+        ServerPreConnectEvent.ServerResult result = event.getResult();
+        Optional<RegisteredServer> target = result.getServer();
+        if (!result.isAllowed() || target.isEmpty()) {
+            return;
+        }
+
+        Player player = event.getPlayer();
+        String serverName = target.get().getServerInfo().getName();
+        if (isAllowed(player.getUniqueId(), serverName)) {
+            return;
+        }
+        denied.increment();
+
+        // Without a previous server this is the initial connection, so try the next allowed server instead.
+        if (event.getPreviousServer() == null) {
+            Optional<RegisteredServer> fallback = findFallback(player.getUniqueId());
+            if (fallback.isPresent()) {
+                event.setResult(ServerPreConnectEvent.ServerResult.allowed(fallback.get()));
+                return;
+            }
+            event.setResult(ServerPreConnectEvent.ServerResult.denied());
+            player.disconnect(TimeBasedAccess.getMessages().serverDenied(serverName));
+            return;
+        }
+
+        event.setResult(ServerPreConnectEvent.ServerResult.denied());
+        player.sendMessage(TimeBasedAccess.getPrefix().append(TimeBasedAccess.getMessages().serverDenied(serverName)));
+    }
+
+    @Subscribe
+    public void onDisconnect(DisconnectEvent event) {
+        untrack(event.getPlayer().getUniqueId());
+    }
+
+    @Override
+    public void onAccessUpdated(PlayerAccess playerAccess) {
+        if (server.getPlayer(playerAccess.getPlayerUUID()).isPresent()) {
+            track(playerAccess);
+        }
+    }
+
+    // The expiry scheduler disconnects the player; until then only open servers are left.
+    @Override
+    public void onAccessRemoved(UUID playerUUID) {
+        if (server.getPlayer(playerUUID).isPresent()) {
+            allowedServers.put(playerUUID, openServers);
+        }
+    }
+
+    private Set<String> resolve(Set<String> scopes) {
+        Set<String> allowed = new HashSet<>(openServers);
+        for (String scope : scopes) {
+            Set<String> members = groups.get(scope);
+            if (members != null) {
+                allowed.addAll(members);
+            } else {
+                allowed.add(scope);
+            }
+        }
+        return Set.copyOf(allowed);
+    }
+
+    private Optional<RegisteredServer> findFallback(UUID playerUUID) {
+        for (String name : server.getConfiguration().getAttemptConnectionOrder()) {
+            if (isAllowed(playerUUID, name)) {
+                Optional<RegisteredServer> candidate = server.getServer(name);
+                if (candidate.isPresent()) {
+                    return candidate;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Map<String, Set<String>> readGroups(ConfigurationNode node) {
+        Map<String, Set<String>> result = new HashMap<>();
+        node.childrenMap().forEach((key, members) ->
+                result.put(String.valueOf(key).toLowerCase(Locale.ROOT), Set.copyOf(readNames(members))));
+        return Map.copyOf(result);
+    }
+
+    private static Set<String> readNames(ConfigurationNode node) {
+        Set<String> names = new HashSet<>();
+        try {
+            for (String name : node.getList(String.class, List.of())) {
+                if (name != null && !name.isBlank()) {
+                    names.add(name.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+        } catch (SerializationException e) {
+            TimeBasedAccess.getInstance().getLogger().warn("Ungültige Serverliste unter {}: {}", node.path(), e.getMessage());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,105 @@
+package de.mecrytv.timeBasedAccess.messages;
+
+import de.mecrytv.timeBasedAccess.database.access.PlayerAccess;
+import de.mecrytv.timeBasedAccess.utils.AccessClock;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.spongepowered.configurate.ConfigurationNode;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+public class AccessMessages {
+
+    private static final MiniMessage MINI_MESSAGE = MiniMessage.miniMessage();
+
+    private final DateTimeFormatter dateFormatter;
+    private final AccessClock clock;
+    private final Component noAccess;
+    private final Component busy;
+    private final MessageTemplate expired;
+    private final MessageTemplate notStarted;
+    private final MessageTemplate expiryWarning;
+    private final MessageTemplate expiryCountdown;
+    private final MessageTemplate serverDenied;
+
+    public AccessMessages(ConfigurationNode config, ZoneId zone, AccessClock clock) {
+        this.dateFormatter = DateTimeFormatter.ofPattern(config.node("date-format").getString("dd.MM.yyyy HH:mm")).withZone(zone);
+        this.clock = clock;
+        this.noAccess = MINI_MESSAGE.deserialize(config.node("no-access").getString(""));
+        this.busy = MINI_MESSAGE.deserialize(config.node("busy").getString(""));
+        this.expired = MessageTemplate.compile(MINI_MESSAGE, config.node("expired").getString(""),
+                "end_time", "now");
+        this.notStarted = MessageTemplate.compile(MINI_MESSAGE, config.node("not-started").getString(""),
+                "start_time", "end_time", "now");
+        this.expiryWarning = MessageTemplate.compile(MINI_MESSAGE, config.node("expiry-warning").getString(""),
+                "time_left");
+        this.expiryCountdown = MessageTemplate.compile(MINI_MESSAGE, config.node("expiry-countdown").getString(""),
+                "seconds");
+        this.serverDenied = MessageTemplate.compile(MINI_MESSAGE, config.node("server-denied").getString(""),
+                "server");
+    }
+
+    public Component noAccess() {
+        return noAccess;
+    }
+
+    public Component busy() {
+        return busy;
+    }
+
+    public Component expired(PlayerAccess playerAccess) {
+        return expired.render(
+                format(playerAccess.getAccessEndTime()),
+                format(clock.instant())
+        );
+    }
+
+    public Component notStarted(PlayerAccess playerAccess) {
+        return notStarted.render(
+                format(playerAccess.getAccessStartTime()),
+                format(playerAccess.getAccessEndTime()),
+                format(clock.instant())
+        );
+    }
+
+    public Component expiryWarning(long secondsLeft) {
+        return expiryWarning.render(formatDuration(secondsLeft));
+    }
+
+    public Component expiryCountdown(long secondsLeft) {
+        return expiryCountdown.render(Long.toString(secondsLeft));
+    }
+
+    public Component serverDenied(String serverName) {
+        return serverDenied.render(serverName);
+    }
+
+    // Compact like the time arguments of /playerAccess, e.g. 1h30m.
+    public static String formatDuration(long seconds) {
+        StringBuilder result = new StringBuilder();
+        long days = seconds / 86400;
+        long hours = seconds % 86400 / 3600;
+        long minutes = seconds % 3600 / 60;
+        long rest = seconds % 60;
+
+        if (days > 0) {
+            result.append(days).append('d');
+        }
+        if (hours > 0) {
+            result.append(hours).append('h');
+        }
+        if (minutes > 0) {
+            result.append(minutes).append('m');
+        }
+        if (rest > 0 || result.isEmpty()) {
+            result.append(rest).append('s');
+        }
+        return result.toString();
+    }
+
+    public String format(Instant instant) {
+        return dateFormatter.format(instant);
+    }
+}
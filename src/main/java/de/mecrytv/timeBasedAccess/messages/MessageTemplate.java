@@ -0,0 +1,149 @@
+package de.mecrytv.timeBasedAccess.messages;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+public final class MessageTemplate {
+
+    private static final char SLOT_MARKER = '\uE000';
+    private static final char SLOT_INDEX_BASE = '\uE100';
+
+    private final Component compiled;
+    private final int slotCount;
+    private final Set<Component> slotPath = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // Only set when a tag split a placeholder marker apart; such templates are parsed again on every render.
+    private final MiniMessage miniMessage;
+    private final String template;
+    private final String[] placeholders;
+
+    private MessageTemplate(Component compiled, int slotCount) {
+        this.compiled = compiled;
+        this.slotCount = slotCount;
+        this.miniMessage = null;
+        this.template = null;
+        this.placeholders = null;
+        collectSlotPath(compiled);
+    }
+
+    private MessageTemplate(MiniMessage miniMessage, String template, String[] placeholders) {
+        this.compiled = null;
+        this.slotCount = placeholders.length;
+        this.miniMessage = miniMessage;
+        this.template = template;
+        this.placeholders = placeholders.clone();
+    }
+
+    public static MessageTemplate compile(MiniMessage miniMessage, String template, String... placeholders) {
+        TagResolver.Builder resolver = TagResolver.builder();
+        for (int i = 0; i < placeholders.length; i++) {
+            String marker = String.valueOf(new char[]{SLOT_MARKER, (char) (SLOT_INDEX_BASE + i)});
+            resolver.resolver(Placeholder.component(placeholders[i], Component.text(marker)));
+        }
+
+        // Tags like <gradient> and <rainbow> split their text into one component per character.
+        Component compiled = miniMessage.deserialize(template, resolver.build());
+        if (!markersIntact(compiled, placeholders.length)) {
+            return new MessageTemplate(miniMessage, template, placeholders);
+        }
+        return new MessageTemplate(compiled, placeholders.length);
+    }
+
+    // Values are given in the order the placeholders were declared in compile().
+    // Only the components on the path to a placeholder are rebuilt; everything else is shared.
+    public Component render(String... values) {
+        if (values.length != slotCount) {
+            throw new IllegalArgumentException("Expected " + slotCount + " values but got " + values.length);
+        }
+        if (compiled == null) {
+            TagResolver.Builder resolver = TagResolver.builder();
+            for (int i = 0; i < slotCount; i++) {
+                resolver.resolver(Placeholder.unparsed(placeholders[i], values[i]));
+            }
+            return miniMessage.deserialize(template, resolver.build());
+        }
+        return render(compiled, values);
+    }
+
+    private Component render(Component node, String[] values) {
+        if (!slotPath.contains(node)) {
+            return node;
+        }
+
+        Component result = node;
+        if (node instanceof TextComponent text && text.content().indexOf(SLOT_MARKER) >= 0) {
+            result = text.content(substitute(text.content(), values));
+        }
+
+        List<Component> children = node.children();
+        if (children.isEmpty()) {
+            return result;
+        }
+
+        List<Component> rendered = new ArrayList<>(children.size());
+        for (Component child : children) {
+            rendered.add(render(child, values));
+        }
+        return result.children(rendered);
+    }
+
+    // Every marker must still be a slot marker directly followed by its index, inside a single text node.
+    private static boolean markersIntact(Component node, int slotCount) {
+        if (node instanceof TextComponent text) {
+            String content = text.content();
+            for (int i = 0; i < content.length(); i++) {
+                char c = content.charAt(i);
+                if (c == SLOT_MARKER) {
+                    if (i + 1 >= content.length() || !isSlotIndex(content.charAt(++i), slotCount)) {
+                        return false;
+                    }
+                } else if (isSlotIndex(c, slotCount)) {
+                    return false;
+                }
+            }
+        }
+        for (Component child : node.children()) {
+            if (!markersIntact(child, slotCount)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSlotIndex(char c, int slotCount) {
+        return c >= SLOT_INDEX_BASE && c < SLOT_INDEX_BASE + slotCount;
+    }
+
+    private boolean collectSlotPath(Component node) {
+        boolean containsSlot = node instanceof TextComponent text && text.content().indexOf(SLOT_MARKER) >= 0;
+        for (Component child : node.children()) {
+            containsSlot |= collectSlotPath(child);
+        }
+        if (containsSlot) {
+            slotPath.add(node);
+        }
+        return containsSlot;
+    }
+
+    private static String substitute(String content, String[] values) {
+        StringBuilder builder = new StringBuilder(content.length() + 32);
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (c == SLOT_MARKER && i + 1 < content.length()) {
+                builder.append(values[content.charAt(++i) - SLOT_INDEX_BASE]);
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,194 @@
+package de.mecrytv.timeBasedAccess.metrics;
+
+import com.zaxxer.hikari.metrics.PoolStats;
+import de.mecrytv.timeBasedAccess.database.access.AccessStatus;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+public class AccessMetrics {
+
+    private final Map<AccessStatus, LongAdder> loginChecks = new EnumMap<>(AccessStatus.class);
+    private final OperationTimer loginCheckTimer = new OperationTimer();
+    private final Map<String, OperationTimer> queryTimers = new ConcurrentSkipListMap<>();
+    private final Map<String, OperationTimer> mojangTimers = new ConcurrentSkipListMap<>();
+    private final Map<String, LongAdder> kicks = new ConcurrentSkipListMap<>();
+    private final Map<String, LongAdder> loginRejections = new ConcurrentSkipListMap<>();
+    private final OperationTimer poolAcquireTimer = new OperationTimer();
+    private final OperationTimer poolUsageTimer = new OperationTimer();
+    private final Map<String, Gauge> gauges = new ConcurrentSkipListMap<>();
+    private volatile PoolStats poolStats;
+
+    public AccessMetrics() {
+        for (AccessStatus status : AccessStatus.values()) {
+            loginChecks.put(status, new LongAdder());
+        }
+    }
+
+    public void recordLoginCheck(AccessStatus status, long nanos) {
+        loginChecks.get(status).increment();
+        loginCheckTimer.record(nanos);
+    }
+
+    // Callers on hot paths should look the timer up once and keep the reference.
+    public OperationTimer queryTimer(String method) {
+        return queryTimers.computeIfAbsent(method, ignored -> new OperationTimer());
+    }
+
+    public OperationTimer mojangTimer(String type) {
+        return mojangTimers.computeIfAbsent(type, ignored -> new OperationTimer());
+    }
+
+    public void recordLoginRejected(String reason) {
+        loginRejections.computeIfAbsent(reason, ignored -> new LongAdder()).increment();
+    }
+
+    public void recordKick(String reason) {
+        kicks.computeIfAbsent(reason, ignored -> new LongAdder()).increment();
+    }
+
+    public void registerGauge(String name, String type, String help, DoubleSupplier value) {
+        gauges.put(name, new Gauge(type, help, value));
+    }
+
+    void setPoolStats(PoolStats poolStats) {
+        this.poolStats = poolStats;
+    }
+
+    public PoolStats getPoolStats() {
+        return poolStats;
+    }
+
+    public OperationTimer getPoolAcquireTimer() {
+        return poolAcquireTimer;
+    }
+
+    public OperationTimer getPoolUsageTimer() {
+        return poolUsageTimer;
+    }
+
+    public OperationTimer getLoginCheckTimer() {
+        return loginCheckTimer;
+    }
+
+    public long getLoginChecks(AccessStatus status) {
+        return loginChecks.get(status).sum();
+    }
+
+    public Map<String, OperationTimer> getQueryTimers() {
+        return queryTimers;
+    }
+
+    public Map<String, OperationTimer> getMojangTimers() {
+        return mojangTimers;
+    }
+
+    public Map<String, LongAdder> getLoginRejections() {
+        return loginRejections;
+    }
+
+    public Map<String, LongAdder> getKicks() {
+        return kicks;
+    }
+
+    // Renders every metric in the Prometheus text exposition format (version 0.0.4).
+    public String scrape() {
+        StringBuilder out = new StringBuilder(8192);
+
+        header(out, "tbaccess_login_checks_total", "counter", "Login access checks by result");
+        for (Map.Entry<AccessStatus, LongAdder> entry : loginChecks.entrySet()) {
+            sample(out, "tbaccess_login_checks_total", "status", label(entry.getKey()), entry.getValue().sum());
+        }
+
+        header(out, "tbaccess_login_rejections_total", "counter", "Logins asked to retry because the access check could not run");
+        loginRejections.forEach((reason, count) -> sample(out, "tbaccess_login_rejections_total", "reason", reason, count.sum()));
+
+        header(out, "tbaccess_login_check_duration_seconds", "histogram", "Time spent deciding a login");
+        loginCheckTimer.writeHistogram(out, "tbaccess_login_check_duration_seconds", "");
+
+        header(out, "tbaccess_store_query_duration_seconds", "histogram", "Store round trips per AccessManager method");
+        queryTimers.forEach((method, timer) ->
+                timer.writeHistogram(out, "tbaccess_store_query_duration_seconds", "method=\"" + method + "\""));
+
+        header(out, "tbaccess_store_query_errors_total", "counter", "Failed store round trips per AccessManager method");
+        queryTimers.forEach((method, timer) ->
+                sample(out, "tbaccess_store_query_errors_total", "method", method, timer.getErrors()));
+
+        header(out, "tbaccess_mojang_lookup_duration_seconds", "histogram", "Mojang profile API latency");
+        mojangTimers.forEach((type, timer) ->
+                timer.writeHistogram(out, "tbaccess_mojang_lookup_duration_seconds", "type=\"" + type + "\""));
+
+        header(out, "tbaccess_mojang_lookup_errors_total", "counter", "Failed Mojang profile API requests");
+        mojangTimers.forEach((type, timer) ->
+                sample(out, "tbaccess_mojang_lookup_errors_total", "type", type, timer.getErrors()));
+
+        header(out, "tbaccess_kicks_total", "counter", "Players kicked by the expiry scheduler");
+        kicks.forEach((reason, count) -> sample(out, "tbaccess_kicks_total", "reason", reason, count.sum()));
+
+        PoolStats stats = poolStats;
+        if (stats != null) {
+            header(out, "tbaccess_pool_connections", "gauge", "Database pool connections by state");
+            sample(out, "tbaccess_pool_connections", "state", "active", stats.getActiveConnections());
+            sample(out, "tbaccess_pool_connections", "state", "idle", stats.getIdleConnections());
+            sample(out, "tbaccess_pool_connections", "state", "total", stats.getTotalConnections());
+
+            header(out, "tbaccess_pool_pending_threads", "gauge", "Threads waiting for a database connection");
+            sample(out, "tbaccess_pool_pending_threads", null, null, stats.getPendingThreads());
+
+            header(out, "tbaccess_pool_acquire_duration_seconds", "histogram", "Time spent waiting for a database connection");
+            poolAcquireTimer.writeHistogram(out, "tbaccess_pool_acquire_duration_seconds", "");
+
+            header(out, "tbaccess_pool_acquire_timeouts_total", "counter", "Connection requests that timed out");
+            sample(out, "tbaccess_pool_acquire_timeouts_total", null, null, poolAcquireTimer.getErrors());
+
+            header(out, "tbaccess_pool_usage_duration_seconds", "histogram", "Time a database connection was held");
+            poolUsageTimer.writeHistogram(out, "tbaccess_pool_usage_duration_seconds", "");
+        }
+
+        gauges.forEach((name, gauge) -> {
+            header(out, name, gauge.type, gauge.help);
+            sample(out, name, null, null, gauge.value.getAsDouble());
+        });
+
+        return out.toString();
+    }
+
+    private static String label(AccessStatus status) {
+        return status.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labelName, String labelValue, double value) {
+        out.append(name);
+        if (labelName != null) {
+            out.append('{').append(labelName).append("=\"").append(labelValue).append("\"}");
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static final class Gauge {
+        private final String type;
+        private final String help;
+        private final DoubleSupplier value;
+
+        private Gauge(String type, String help, DoubleSupplier value) {
+            this.type = type;
+            this.help = help;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package de.mecrytv.timeBasedAccess.metrics;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+
+// Feeds connection wait and hold times from HikariCP into AccessMetrics and exposes the pool state as gauges.
+public class HikariMetricsTracker implements IMetricsTracker, MetricsTrackerFactory {
+
+    private final AccessMetrics metrics;
+
+    public HikariMetricsTracker(AccessMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        metrics.setPoolStats(poolStats);
+        return this;
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        metrics.getPoolAcquireTimer().record(elapsedAcquiredNanos);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        metrics.getPoolUsageTimer().record(TimeUnit.MILLISECONDS.toNanos(elapsedBorrowedMillis));
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        metrics.getPoolAcquireTimer().recordError();
+    }
+}
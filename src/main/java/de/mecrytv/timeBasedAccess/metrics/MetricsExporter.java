@@ -0,0 +1,127 @@
+package de.mecrytv.timeBasedAccess.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.velocitypowered.api.scheduler.ScheduledTask;
+import de.mecrytv.timeBasedAccess.TimeBasedAccess;
+import org.spongepowered.configurate.ConfigurationNode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Publishes AccessMetrics through a local /metrics endpoint and/or a node_exporter textfile.
+public class MetricsExporter {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final AccessMetrics metrics;
+    private final ConfigurationNode config;
+    private final Path dataDirectory;
+
+    private HttpServer httpServer;
+    private ExecutorService httpExecutor;
+    private ScheduledTask textfileTask;
+
+    public MetricsExporter(AccessMetrics metrics, ConfigurationNode config, Path dataDirectory) {
+        this.metrics = metrics;
+        this.config = config;
+        this.dataDirectory = dataDirectory;
+    }
+
+    public void start() {
+        ConfigurationNode http = config.node("http");
+        if (http.node("enabled").getBoolean(false)) {
+            startHttpServer(http.node("host").getString("127.0.0.1"), http.node("port").getInt(9464));
+        }
+
+        ConfigurationNode textfile = config.node("textfile");
+        if (textfile.node("enabled").getBoolean(false)) {
+            startTextfile(dataDirectory.resolve(textfile.node("file").getString("metrics.prom")),
+                    Math.max(1, textfile.node("interval-seconds").getLong(15)));
+        }
+    }
+
+    public void stop() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpExecutor.shutdownNow();
+            httpServer = null;
+        }
+
+        if (textfileTask != null) {
+            textfileTask.cancel();
+            textfileTask = null;
+        }
+    }
+
+    private void startHttpServer(String host, int port) {
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(host, port), 0);
+            httpServer.createContext("/metrics", this::handleScrape);
+            httpExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "TBAccess-Metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            httpServer.setExecutor(httpExecutor);
+            httpServer.start();
+            TimeBasedAccess.getInstance().getLogger().info("Metrics endpoint listening on http://{}:{}/metrics", host, port);
+        } catch (IOException e) {
+            httpServer = null;
+            TimeBasedAccess.getInstance().getLogger().error("Metrics endpoint konnte nicht gestartet werden: ", e);
+        }
+    }
+
+    private void handleScrape(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = metrics.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private void startTextfile(Path file, long intervalSeconds) {
+        textfileTask = TimeBasedAccess.getInstance().getServer().getScheduler()
+                .buildTask(TimeBasedAccess.getInstance(), () -> submitTextfile(file))
+                .repeat(intervalSeconds, TimeUnit.SECONDS)
+                .schedule();
+        TimeBasedAccess.getInstance().getLogger().info("Writing metrics to {} every {} s", file, intervalSeconds);
+    }
+
+    private void submitTextfile(Path file) {
+        try {
+            TimeBasedAccess.getIoExecutor().execute(() -> writeTextfile(file));
+        } catch (RejectedExecutionException e) {
+            // Shutting down.
+        }
+    }
+
+    // Written to a temp file first so the collector never reads a half-written scrape.
+    private void writeTextfile(Path file) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(temp, metrics.scrape(), StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            TimeBasedAccess.getInstance().getLogger().warn("Error writing metrics file {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package de.mecrytv.timeBasedAccess.scheduler;
+
+import com.velocitypowered.api.scheduler.ScheduledTask;
+import de.mecrytv.timeBasedAccess.TimeBasedAccess;
+import de.mecrytv.timeBasedAccess.database.access.AccessChangeListener;
+import de.mecrytv.timeBasedAccess.database.access.PlayerAccess;
+import de.mecrytv.timeBasedAccess.utils.AccessClock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// Every tracked player has exactly one live entry in the queue: the next warning before the end of their grant, or
+// the end itself. A tick therefore only touches players that are due, plus those in the final countdown.
+public class AccessExpiryScheduler implements AccessChangeListener {
+
+    private final Consumer<List<UUID>> expiryHandler;
+    private final AccessClock clock;
+    private final ExpiryWarnings warnings;
+
+    // Milliseconds before the end at which each stage fires, largest first; the stage after the last is the end.
+    // stageWarning maps a stage to its chat warning, or -1 for the start of the countdown.
+    private final long[] stageBefore;
+    private final int[] stageWarning;
+    private final int countdownStage;
+    private final int endStage;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Deadline> queue = new PriorityQueue<>();
+    private final Map<UUID, Deadline> armed = new HashMap<>();
+    private final Set<UUID> online = new HashSet<>();
+    private final Map<UUID, Long> countdowns = new HashMap<>();
+
+    private ScheduledTask tickTask;
+
+    public AccessExpiryScheduler(Consumer<List<UUID>> expiryHandler, AccessClock clock) {
+        this(expiryHandler, clock, null);
+    }
+
+    public AccessExpiryScheduler(Consumer<List<UUID>> expiryHandler, AccessClock clock, ExpiryWarnings warnings) {
+        this.expiryHandler = expiryHandler;
+        this.clock = clock;
+        this.warnings = warnings;
+
+        long[] warnBefore = warnings != null ? warnings.getWarnBeforeSeconds() : new long[0];
+        int countdownSeconds = warnings != null ? warnings.getCountdownSeconds() : 0;
+
+        this.endStage = warnBefore.length + (countdownSeconds > 0 ? 1 : 0);
+        this.stageBefore = new long[endStage];
+        this.stageWarning = new int[endStage];
+
+        int countdownAt = -1;
+        int stage = 0;
+        for (int warning = 0; warning < warnBefore.length; warning++) {
+            if (countdownAt < 0 && countdownSeconds > 0 && countdownSeconds >= warnBefore[warning]) {
+                countdownAt = stage;
+                stageBefore[stage] = TimeUnit.SECONDS.toMillis(countdownSeconds);
+                stageWarning[stage++] = -1;
+            }
+            stageBefore[stage] = TimeUnit.SECONDS.toMillis(warnBefore[warning]);
+            stageWarning[stage++] = warning;
+        }
+        if (countdownAt < 0 && countdownSeconds > 0) {
+            countdownAt = stage;
+            stageBefore[stage] = TimeUnit.SECONDS.toMillis(countdownSeconds);
+            stageWarning[stage] = -1;
+        }
+        this.countdownStage = countdownAt;
+    }
+
+    public void start() {
+        tickTask = TimeBasedAccess.getInstance().getServer().getScheduler()
+                .buildTask(TimeBasedAccess.getInstance(), this::tick)
+                .repeat(1, TimeUnit.SECONDS)
+                .schedule();
+    }
+
+    public void stop() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+    }
+
+    public void track(PlayerAccess playerAccess) {
+        lock.lock();
+        try {
+            online.add(playerAccess.getPlayerUUID());
+            arm(playerAccess);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void untrack(UUID playerUUID) {
+        lock.lock();
+        try {
+            online.remove(playerUUID);
+            countdowns.remove(playerUUID);
+            if (armed.remove(playerUUID) != null) {
+                compactIfStale();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Checks the player again later without a verdict now, e.g. while access data cannot be trusted.
+    public void recheckLater(UUID playerUUID, long delaySeconds) {
+        lock.lock();
+        try {
+            if (online.contains(playerUUID)) {
+                countdowns.remove(playerUUID);
+                schedule(playerUUID, clock.millis() + TimeUnit.SECONDS.toMillis(delaySeconds), endStage);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getTrackedCount() {
+        lock.lock();
+        try {
+            return online.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getCountdownCount() {
+        lock.lock();
+        try {
+            return countdowns.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void onAccessUpdated(PlayerAccess playerAccess) {
+        lock.lock();
+        try {
+            if (online.contains(playerAccess.getPlayerUUID())) {
+                arm(playerAccess);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void onAccessRemoved(UUID playerUUID) {
+        lock.lock();
+        try {
+            if (online.contains(playerUUID)) {
+                countdowns.remove(playerUUID);
+                schedule(playerUUID, Long.MIN_VALUE, endStage);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void arm(PlayerAccess playerAccess) {
+        UUID playerUUID = playerAccess.getPlayerUUID();
+        countdowns.remove(playerUUID);
+        if (playerAccess.isPermaAccess()) {
+            armed.remove(playerUUID);
+            return;
+        }
+
+        // Warnings whose time has already passed are skipped; a player joining with 3 minutes left gets the 1 minute one.
+        long end = playerAccess.getAccessEndMillis();
+        long now = clock.millis();
+        int stage = 0;
+        while (stage < endStage && end - stageBefore[stage] <= now) {
+            stage++;
+        }
+        if (countdownStage >= 0 && stage > countdownStage && end > now) {
+            countdowns.put(playerUUID, end);
+        }
+        schedule(playerUUID, end, stage);
+    }
+
+    private void schedule(UUID playerUUID, long end, int stage) {
+        long time = stage < endStage ? end - stageBefore[stage] : end;
+        Deadline entry = new Deadline(playerUUID, time, end, stage);
+        armed.put(playerUUID, entry);
+        queue.add(entry);
+        compactIfStale();
+    }
+
+    private void compactIfStale() {
+        if (queue.size() <= armed.size() * 2 + 64) {
+            return;
+        }
+        queue.clear();
+        queue.addAll(armed.values());
+    }
+
+    private void tick() {
+        List<UUID> due = null;
+        List<List<UUID>> warned = null;
+        Map<Integer, List<UUID>> countdown = null;
+        long now = clock.millis();
+
+        lock.lock();
+        try {
+            Deadline head;
+            while ((head = queue.peek()) != null && head.time <= now) {
+                queue.poll();
+
+                // Re-armed or untracked entries stay in the queue until they surface; skip them here.
+                if (armed.get(head.playerUUID) != head) {
+                    continue;
+                }
+
+                if (head.stage == endStage) {
+                    armed.remove(head.playerUUID);
+                    countdowns.remove(head.playerUUID);
+                    if (due == null) {
+                        due = new ArrayList<>();
+                    }
+                    due.add(head.playerUUID);
+                    continue;
+                }
+
+                if (head.stage == countdownStage) {
+                    countdowns.put(head.playerUUID, head.end);
+                } else if (!overtaken(head, now)) {
+                    if (warned == null) {
+                        warned = newBatches(endStage);
+                    }
+                    warned.get(head.stage).add(head.playerUUID);
+                }
+                schedule(head.playerUUID, head.end, head.stage + 1);
+            }
+
+            for (Map.Entry<UUID, Long> entry : countdowns.entrySet()) {
+                int secondsLeft = (int) Math.ceilDiv(entry.getValue() - now, 1000L);
+                if (secondsLeft > 0) {
+                    if (countdown == null) {
+                        countdown = new HashMap<>();
+                    }
+                    countdown.computeIfAbsent(secondsLeft, seconds -> new ArrayList<>()).add(entry.getKey());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (warned != null || countdown != null) {
+            deliver(warned, countdown);
+        }
+        if (due != null) {
+            dispatch(due);
+        }
+    }
+
+    // A chat warning whose successor is already due, e.g. after a stalled tick, is dropped.
+    private boolean overtaken(Deadline deadline, long now) {
+        int next = deadline.stage + 1;
+        return next < endStage && stageWarning[next] >= 0 && deadline.end - stageBefore[next] <= now;
+    }
+
+    // Only sends prepared components, nothing here touches the store.
+    private void deliver(List<List<UUID>> warned, Map<Integer, List<UUID>> countdown) {
+        if (warned != null) {
+            for (int stage = 0; stage < warned.size(); stage++) {
+                if (!warned.get(stage).isEmpty()) {
+                    warnings.warn(stageWarning[stage], warned.get(stage));
+                }
+            }
+        }
+        if (countdown != null) {
+            countdown.forEach(warnings::countdown);
+        }
+    }
+
+    private static List<List<UUID>> newBatches(int stages) {
+        List<List<UUID>> batches = new ArrayList<>(stages);
+        for (int stage = 0; stage < stages; stage++) {
+            batches.add(new ArrayList<>());
+        }
+        return batches;
+    }
+
+    // The handler looks players up in the store, which must not block the proxy's scheduler threads.
+    private void dispatch(List<UUID> due) {
+        try {
+            TimeBasedAccess.getIoExecutor().execute(() -> expiryHandler.accept(due));
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the players are disconnected anyway.
+        }
+    }
+
+    private static final class Deadline implements Comparable<Deadline> {
+        private final UUID playerUUID;
+        private final long time;
+        private final long end;
+        private final int stage;
+
+        private Deadline(UUID playerUUID, long time, long end, int stage) {
+            this.playerUUID = playerUUID;
+            this.time = time;
+            this.end = end;
+            this.stage = stage;
+        }
+
+        @Override
+        public int compareTo(Deadline other) {
+            return Long.compare(time, other.time);
+        }
+    }
+}
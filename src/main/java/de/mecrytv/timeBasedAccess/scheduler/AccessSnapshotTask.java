@@ -0,0 +1,34 @@
+package de.mecrytv.timeBasedAccess.scheduler;
+
+import de.mecrytv.timeBasedAccess.TimeBasedAccess;
+import de.mecrytv.timeBasedAccess.database.access.AccessManager;
+import org.spongepowered.configurate.ConfigurationNode;
+
+import java.util.concurrent.TimeUnit;
+
+public class AccessSnapshotTask extends PeriodicIoTask {
+
+    private final AccessManager accessManager;
+    private final long intervalMinutes;
+
+    public AccessSnapshotTask(AccessManager accessManager, ConfigurationNode config) {
+        this.accessManager = accessManager;
+        this.intervalMinutes = Math.max(1, config.node("snapshot-interval-minutes").getLong(5));
+    }
+
+    public void start() {
+        schedule(TimeUnit.SECONDS.toMillis(30), TimeUnit.MINUTES.toMillis(intervalMinutes));
+
+        TimeBasedAccess.getInstance().getLogger().info("Access snapshot scheduled every {} min", intervalMinutes);
+    }
+
+    @Override
+    protected void run() {
+        long started = System.currentTimeMillis();
+        int written = accessManager.writeSnapshot();
+        if (written >= 0) {
+            TimeBasedAccess.getInstance().getLogger().info(
+                    "Access snapshot wrote {} grants in {} ms", written, System.currentTimeMillis() - started);
+        }
+    }
+}
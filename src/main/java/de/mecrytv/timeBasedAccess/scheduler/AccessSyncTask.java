@@ -0,0 +1,52 @@
+package de.mecrytv.timeBasedAccess.scheduler;
+
+import de.mecrytv.timeBasedAccess.TimeBasedAccess;
+import de.mecrytv.timeBasedAccess.database.access.AccessManager;
+import org.spongepowered.configurate.ConfigurationNode;
+
+public class AccessSyncTask extends PeriodicIoTask {
+
+    private final AccessManager accessManager;
+    private final long intervalMillis;
+    private final int batchSize;
+
+    private volatile long lastSeenVersion;
+
+    // baselineVersion is the change version read before the cache was first filled, so nothing written while it was
+    // loading is missed; -1 if it could not be read.
+    public AccessSyncTask(AccessManager accessManager, ConfigurationNode config, long baselineVersion) {
+        this.accessManager = accessManager;
+        this.intervalMillis = Math.max(100, config.node("interval-millis").getLong(1000));
+        this.batchSize = Math.max(1, config.node("batch-size").getInt(1000));
+        this.lastSeenVersion = baselineVersion;
+    }
+
+    public void start() {
+        schedule(0, intervalMillis);
+
+        TimeBasedAccess.getInstance().getLogger().info("Access sync polling for remote changes every {} ms", intervalMillis);
+    }
+
+    public long getLastSeenVersion() {
+        return lastSeenVersion;
+    }
+
+    @Override
+    protected void run() {
+        // Without a baseline, changes made before this point cannot be replayed; drop what was cached instead.
+        if (lastSeenVersion < 0) {
+            long version = accessManager.getCurrentVersion();
+            if (version >= 0) {
+                accessManager.invalidateAll();
+                lastSeenVersion = version;
+            }
+            return;
+        }
+
+        long version;
+        do {
+            version = lastSeenVersion;
+            lastSeenVersion = accessManager.pollChanges(version, batchSize);
+        } while (lastSeenVersion > version && !Thread.currentThread().isInterrupted());
+    }
+}
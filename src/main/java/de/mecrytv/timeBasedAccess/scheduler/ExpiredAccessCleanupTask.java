@@ -0,0 +1,58 @@
+package de.mecrytv.timeBasedAccess.scheduler;
+
+import de.mecrytv.timeBasedAccess.TimeBasedAccess;
+import de.mecrytv.timeBasedAccess.database.access.AccessManager;
+import org.spongepowered.configurate.ConfigurationNode;
+
+import java.util.concurrent.TimeUnit;
+
+public class ExpiredAccessCleanupTask extends PeriodicIoTask {
+
+    private final AccessManager accessManager;
+    private final long intervalMinutes;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final int tombstoneRetentionHours;
+
+    private volatile int lastRemoved;
+
+    public ExpiredAccessCleanupTask(AccessManager accessManager, ConfigurationNode config) {
+        this.accessManager = accessManager;
+        this.intervalMinutes = Math.max(1, config.node("interval-minutes").getLong(60));
+        this.batchSize = Math.max(1, config.node("batch-size").getInt(1000));
+        this.pauseMillis = Math.max(0, config.node("pause-millis").getLong(250));
+        this.tombstoneRetentionHours = Math.max(1, config.node("tombstone-retention-hours").getInt(24));
+    }
+
+    public void start() {
+        schedule(TimeUnit.MINUTES.toMillis(1), TimeUnit.MINUTES.toMillis(intervalMinutes));
+
+        TimeBasedAccess.getInstance().getLogger().info(
+                "Expired access cleanup scheduled every {} min (batch size {}, pause {} ms)",
+                intervalMinutes, batchSize, pauseMillis
+        );
+    }
+
+    public int getLastRemoved() {
+        return lastRemoved;
+    }
+
+    @Override
+    protected void run() {
+        long started = System.currentTimeMillis();
+        int removed = accessManager.cleanupExpiredAccesses(batchSize, pauseMillis);
+        lastRemoved = removed;
+
+        int pruned = 0;
+        int chunk;
+        do {
+            chunk = accessManager.pruneTombstones(tombstoneRetentionHours, batchSize);
+            pruned += chunk;
+        } while (chunk == batchSize && !Thread.currentThread().isInterrupted());
+
+        TimeBasedAccess.getInstance().getLogger().info(
+                "Expired access cleanup removed {} grants and {} tombstones in {} ms",
+                removed, pruned, System.currentTimeMillis() - started
+        );
+    }
+}
@@ -0,0 +1,102 @@
+package de.mecrytv.timeBasedAccess.scheduler;
+
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.proxy.ProxyServer;
+import de.mecrytv.timeBasedAccess.TimeBasedAccess;
+import de.mecrytv.timeBasedAccess.messages.AccessMessages;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.text.Component;
+import org.spongepowered.configurate.ConfigurationNode;
+import org.spongepowered.configurate.serialize.SerializationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Warnings sent by AccessExpiryScheduler before a grant ends. Every warning is rendered once per message set, so
+// delivery only looks the players up and sends one shared component to each batch.
+public class ExpiryWarnings {
+
+    private final long[] warnBeforeSeconds;
+    private final int countdownSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private AccessMessages renderedFor;
+    private Component[] warnings;
+    private Component[] countdown;
+
+    public ExpiryWarnings(ConfigurationNode config) {
+        TreeSet<Long> before = new TreeSet<>();
+        try {
+            for (Long seconds : config.node("warn-before-seconds").getList(Long.class, List.of())) {
+                if (seconds != null && seconds > 0) {
+                    before.add(seconds);
+                }
+            }
+        } catch (SerializationException e) {
+            TimeBasedAccess.getInstance().getLogger().warn("Invalid warnings.warn-before-seconds, no chat warnings are sent: {}", e.getMessage());
+        }
+
+        this.warnBeforeSeconds = before.descendingSet().stream().mapToLong(Long::longValue).toArray();
+        this.countdownSeconds = Math.max(0, config.node("countdown-seconds").getInt(10));
+    }
+
+    // Largest first, the order they fire in.
+    public long[] getWarnBeforeSeconds() {
+        return warnBeforeSeconds.clone();
+    }
+
+    public int getCountdownSeconds() {
+        return countdownSeconds;
+    }
+
+    public void warn(int index, List<UUID> playerUUIDs) {
+        Component message = rendered().warnings[index];
+        audience(playerUUIDs).sendMessage(message);
+    }
+
+    public void countdown(int secondsLeft, List<UUID> playerUUIDs) {
+        if (secondsLeft < 1 || secondsLeft > countdownSeconds) {
+            return;
+        }
+        Component message = rendered().countdown[secondsLeft];
+        audience(playerUUIDs).sendActionBar(message);
+    }
+
+    // Re-rendered only when the messages were reloaded.
+    private ExpiryWarnings rendered() {
+        lock.lock();
+        try {
+            AccessMessages messages = TimeBasedAccess.getMessages();
+            if (messages != renderedFor) {
+                Component[] renderedWarnings = new Component[warnBeforeSeconds.length];
+                for (int i = 0; i < warnBeforeSeconds.length; i++) {
+                    renderedWarnings[i] = TimeBasedAccess.getPrefix().append(messages.expiryWarning(warnBeforeSeconds[i]));
+                }
+
+                Component[] renderedCountdown = new Component[countdownSeconds + 1];
+                for (int seconds = 1; seconds <= countdownSeconds; seconds++) {
+                    renderedCountdown[seconds] = messages.expiryCountdown(seconds);
+                }
+
+                warnings = renderedWarnings;
+                countdown = renderedCountdown;
+                renderedFor = messages;
+            }
+            return this;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Audience audience(List<UUID> playerUUIDs) {
+        ProxyServer server = TimeBasedAccess.getInstance().getServer();
+        List<Player> players = new ArrayList<>(playerUUIDs.size());
+        for (UUID playerUUID : playerUUIDs) {
+            server.getPlayer(playerUUID).ifPresent(players::add);
+        }
+        return Audience.audience(players);
+    }
+}
@@ -0,0 +1,52 @@
+package de.mecrytv.timeBasedAccess.scheduler;
+
+import com.velocitypowered.api.scheduler.ScheduledTask;
+import de.mecrytv.timeBasedAccess.TimeBasedAccess;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Ticks on the Velocity scheduler and hands the work to the IO executor; a tick is skipped while the previous run is busy.
+public abstract class PeriodicIoTask {
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ScheduledTask task;
+
+    protected void schedule(long delayMillis, long intervalMillis) {
+        task = TimeBasedAccess.getInstance().getServer().getScheduler()
+                .buildTask(TimeBasedAccess.getInstance(), this::submit)
+                .delay(delayMillis, TimeUnit.MILLISECONDS)
+                .repeat(intervalMillis, TimeUnit.MILLISECONDS)
+                .schedule();
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    protected abstract void run();
+
+    private void submit() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            TimeBasedAccess.getIoExecutor().execute(this::runOnce);
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+        }
+    }
+
+    private void runOnce() {
+        try {
+            run();
+        } finally {
+            running.set(false);
+        }
+    }
+}
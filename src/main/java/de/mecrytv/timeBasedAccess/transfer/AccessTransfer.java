@@ -0,0 +1,298 @@
+package de.mecrytv.timeBasedAccess.transfer;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import de.mecrytv.timeBasedAccess.TimeBasedAccess;
+import de.mecrytv.timeBasedAccess.database.access.AccessManager;
+import de.mecrytv.timeBasedAccess.database.access.PlayerAccess;
+import de.mecrytv.timeBasedAccess.utils.GeneralUtils;
+import de.mecrytv.timeBasedAccess.utils.UUIDResolver;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+
+// Streams grants between the store and CSV or NDJSON files; the format follows the file extension.
+public class AccessTransfer {
+
+    private static final String CSV_HEADER = "uuid,name,start,end,perma,servers";
+    // Also matches the header of files exported before the servers column existed.
+    private static final String CSV_HEADER_START = "uuid,name,";
+    // Scopes inside one CSV column are separated by '|' because ',' separates the columns.
+    private static final char CSV_SCOPE_SEPARATOR = '|';
+    // Name lookups of one chunk are retried with doubling pauses, e.g. after Mojang answered 429.
+    private static final int RESOLVE_ATTEMPTS = 4;
+    private static final long RESOLVE_BACKOFF_MILLIS = 1000;
+
+    private final AccessManager accessManager;
+    private final UUIDResolver uuidResolver;
+    private final Path baseDirectory;
+    private final int chunkSize;
+    private final ZoneId zone;
+
+    public AccessTransfer(AccessManager accessManager, UUIDResolver uuidResolver, Path baseDirectory, int chunkSize, ZoneId zone) {
+        this.accessManager = accessManager;
+        this.uuidResolver = uuidResolver;
+        this.baseDirectory = baseDirectory.toAbsolutePath().normalize();
+        this.chunkSize = Math.max(1, chunkSize);
+        this.zone = zone;
+    }
+
+    public Path resolve(String fileName) {
+        Path path = baseDirectory.resolve(fileName).normalize();
+        if (!path.startsWith(baseDirectory)) {
+            throw new IllegalArgumentException("File must be inside the plugin directory");
+        }
+        if (format(path) == null) {
+            throw new IllegalArgumentException("Unsupported file type, use .csv or .ndjson");
+        }
+        return path;
+    }
+
+    public int exportTo(Path path) throws Exception {
+        Format format = format(path);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        int[] count = {0};
+
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            if (format == Format.CSV) {
+                writer.write(CSV_HEADER);
+                writer.newLine();
+            }
+
+            accessManager.exportPlayerAccesses(access -> {
+                writer.write(format == Format.CSV ? toCsv(access) : toJson(access));
+                writer.newLine();
+                count[0]++;
+            });
+        } catch (Exception e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count[0];
+    }
+
+    // Chunks are committed one by one; if one fails, the result reports the chunks stored before it and the error.
+    public ImportResult importFrom(Path path) {
+        Format format = format(path);
+        ImportResult result = new ImportResult();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith(CSV_HEADER_START)) {
+                    continue;
+                }
+
+                try {
+                    chunk.add(format == Format.CSV ? parseCsv(line, zone) : parseJson(line, zone));
+                } catch (RuntimeException e) {
+                    result.invalid++;
+                }
+
+                if (chunk.size() >= chunkSize) {
+                    importChunk(chunk, result);
+                    chunk.clear();
+                }
+            }
+
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, result);
+            }
+        } catch (Exception e) {
+            result.error = e;
+        }
+        return result;
+    }
+
+    private void importChunk(List<Row> chunk, ImportResult result) throws Exception {
+        List<String> unresolvedNames = new ArrayList<>();
+        for (Row row : chunk) {
+            if (row.uuid == null) {
+                unresolvedNames.add(row.name);
+            }
+        }
+
+        Map<String, UUID> resolved = unresolvedNames.isEmpty() ? Map.of() : resolveWithRetry(unresolvedNames);
+
+        List<PlayerAccess> accesses = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            UUID uuid = row.uuid != null ? row.uuid : resolved.get(row.name.toLowerCase(Locale.ROOT));
+            if (uuid == null) {
+                result.unresolved++;
+                continue;
+            }
+            accesses.add(new PlayerAccess(uuid, row.name, row.start, row.end, row.perma, row.servers));
+        }
+
+        if (!accesses.isEmpty()) {
+            accessManager.importPlayerAccesses(accesses);
+            result.imported += accesses.size();
+        }
+    }
+
+    // Names that still cannot be resolved after the last attempt are counted as unresolved instead of failing the import.
+    private Map<String, UUID> resolveWithRetry(List<String> playerNames) {
+        long backoffMillis = RESOLVE_BACKOFF_MILLIS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return uuidResolver.resolveAll(playerNames).join();
+            } catch (CompletionException e) {
+                if (attempt >= RESOLVE_ATTEMPTS) {
+                    TimeBasedAccess.getInstance().getLogger().warn("Could not resolve {} player names after {} attempts: {}",
+                            playerNames.size(), attempt, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                    return Map.of();
+                }
+            }
+
+            try {
+                Thread.sleep(backoffMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Map.of();
+            }
+            backoffMillis *= 2;
+        }
+    }
+
+    private static Format format(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return Format.CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return Format.NDJSON;
+        }
+        return null;
+    }
+
+    private static String toCsv(PlayerAccess access) {
+        return access.getPlayerUUID() + "," + access.getPlayerName() + "," + access.getAccessStartTime()
+                + "," + access.getAccessEndTime() + "," + access.isPermaAccess()
+                + "," + GeneralUtils.joinServerScopes(access.getServerScopes()).replace(',', CSV_SCOPE_SEPARATOR);
+    }
+
+    private static String toJson(PlayerAccess access) {
+        JsonObject json = new JsonObject();
+        json.addProperty("uuid", access.getPlayerUUID().toString());
+        json.addProperty("name", access.getPlayerName());
+        json.addProperty("start", access.getAccessStartTime().toString());
+        json.addProperty("end", access.getAccessEndTime().toString());
+        json.addProperty("perma", access.isPermaAccess());
+        if (!access.isAllServers()) {
+            JsonArray servers = new JsonArray();
+            access.getServerScopes().stream().sorted().forEach(servers::add);
+            json.add("servers", servers);
+        }
+        return json.toString();
+    }
+
+    private static Row parseCsv(String line, ZoneId zone) {
+        String[] parts = line.split(",", -1);
+        if (parts.length != 5 && parts.length != 6) {
+            throw new IllegalArgumentException("Expected 5 or 6 columns but got " + parts.length);
+        }
+        String servers = parts.length == 6 ? parts[5].replace(CSV_SCOPE_SEPARATOR, ',') : "";
+        return new Row(parts[0], parts[1], parts[2], parts[3], parts[4], servers, zone);
+    }
+
+    private static Row parseJson(String line, ZoneId zone) {
+        JsonObject json = JsonParser.parseString(line).getAsJsonObject();
+        return new Row(
+                json.has("uuid") && !json.get("uuid").isJsonNull() ? json.get("uuid").getAsString() : "",
+                json.get("name").getAsString(),
+                json.get("start").getAsString(),
+                json.get("end").getAsString(),
+                json.has("perma") ? json.get("perma").getAsString() : "false",
+                json.has("servers") && json.get("servers").isJsonArray() ? joinJson(json.getAsJsonArray("servers")) : "",
+                zone
+        );
+    }
+
+    private static String joinJson(JsonArray array) {
+        List<String> values = new ArrayList<>(array.size());
+        for (JsonElement element : array) {
+            values.add(element.getAsString());
+        }
+        return String.join(",", values);
+    }
+
+    // Exports write UTC instants; files from older versions carry local date-times, which are read in the configured zone.
+    private static Instant parseTime(String value, ZoneId zone) {
+        TemporalAccessor parsed = DateTimeFormatter.ISO_DATE_TIME.parse(value.trim());
+        if (parsed.isSupported(ChronoField.OFFSET_SECONDS)) {
+            return Instant.from(parsed);
+        }
+        return LocalDateTime.from(parsed).atZone(zone).toInstant();
+    }
+
+    private enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private static final class Row {
+        private final UUID uuid;
+        private final String name;
+        private final Instant start;
+        private final Instant end;
+        private final boolean perma;
+        private final Set<String> servers;
+
+        private Row(String uuid, String name, String start, String end, String perma, String servers, ZoneId zone) {
+            this.uuid = uuid.isBlank() ? null : UUID.fromString(uuid.trim());
+            this.name = name.trim();
+            this.start = parseTime(start, zone);
+            this.end = parseTime(end, zone);
+            this.perma = Boolean.parseBoolean(perma.trim());
+            this.servers = GeneralUtils.parseServerScopes(servers);
+        }
+    }
+
+    public static final class ImportResult {
+        private int imported;
+        private int unresolved;
+        private int invalid;
+        private Exception error;
+
+        public int getImported() {
+            return imported;
+        }
+
+        public int getUnresolved() {
+            return unresolved;
+        }
+
+        public int getInvalid() {
+            return invalid;
+        }
+
+        // Set if the import stopped early; the counts cover what was done until then.
+        public Exception getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package de.mecrytv.timeBasedAccess.utils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+// All access decisions read time from here, as UTC epoch millis. The Clock is injectable so benchmarks and tools can
+// run on fixed or fast-forwarded time. Once refreshing is started, coarseMillis() is a volatile read of a value that
+// a virtual thread updates every resolution, so per-player checks neither query the clock nor allocate.
+public class AccessClock {
+
+    private final Clock clock;
+
+    private volatile long coarseMillis;
+    private volatile boolean refreshing;
+    private Thread refresher;
+
+    public AccessClock(Clock clock) {
+        this.clock = clock;
+        this.coarseMillis = clock.millis();
+    }
+
+    public static AccessClock system() {
+        return new AccessClock(Clock.systemUTC());
+    }
+
+    public long millis() {
+        return clock.millis();
+    }
+
+    public Instant instant() {
+        return clock.instant();
+    }
+
+    // At most one resolution behind millis(); exact while refreshing is off.
+    public long coarseMillis() {
+        return refreshing ? coarseMillis : clock.millis();
+    }
+
+    public void tick() {
+        coarseMillis = clock.millis();
+    }
+
+    public synchronized void startRefreshing(long resolutionMillis) {
+        if (refresher != null) {
+            return;
+        }
+
+        long sleepNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, resolutionMillis));
+        tick();
+        refreshing = true;
+        refresher = Thread.ofVirtual().name("TBAccess-Clock").start(() -> {
+            while (refreshing) {
+                tick();
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+    }
+
+    public synchronized void stopRefreshing() {
+        refreshing = false;
+        if (refresher != null) {
+            refresher.interrupt();
+            refresher = null;
+        }
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+}
@@ -1,114 +1,71 @@
 package de.mecrytv.timeBasedAccess.utils;
 
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class GeneralUtils {
 
-    private static final HttpClient HTTP = HttpClient.newHttpClient();
-    private static final Pattern TIME_PATTERN = Pattern.compile("(\\d+)([dhms])");
-
-    public static UUID getUUIDFromName(String playerName) {
-        try {
-            String url = "https://api.mojang.com/users/profiles/minecraft/" + playerName;
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .GET()
-                    .build();
-
-            HttpResponse<String> response = HTTP.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() != 200) {
-                throw new IllegalArgumentException("Spieler nicht gefunden oder API‑Limit erreicht (Status "
-                        + response.statusCode() + ")");
-            }
-
-            JsonObject json = JsonParser.parseString(response.body()).getAsJsonObject();
-            String rawUuid = json.get("id").getAsString();
+    private static final Pattern SERVER_SCOPE = Pattern.compile("[a-z0-9_.-]{1,64}");
+    // Length of the serverScopes column.
+    private static final int MAX_SERVER_SCOPES_LENGTH = 1024;
 
-            String formatted = rawUuid.replaceFirst(
-                    "(\\w{8})(\\w{4})(\\w{4})(\\w{4})(\\w{12})",
-                    "$1-$2-$3-$4-$5"
-            );
+    public static byte[] uuidToBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
 
-            return UUID.fromString(formatted);
-        } catch (IllegalArgumentException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new RuntimeException("Fehler beim Abrufen der UUID: " + e.getMessage(), e);
-        }
+    // Same order as comparing uuidToBytes() output as unsigned bytes, which is how MySQL sorts BINARY(16).
+    public static int compareKeys(UUID left, UUID right) {
+        int high = Long.compareUnsigned(left.getMostSignificantBits(), right.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(left.getLeastSignificantBits(), right.getLeastSignificantBits());
     }
 
-    public static LocalDateTime[] parseTime(String timeInput) {
-        Matcher matcher = TIME_PATTERN.matcher(timeInput.toLowerCase());
+    // Local date-times from older versions are read in the zone they were written in; in a DST overlap the earlier
+    // offset wins, in a gap the time moves forward by the gap length.
+    public static long toEpochMillis(LocalDateTime dateTime, ZoneId legacyZone) {
+        return dateTime.atZone(legacyZone).toInstant().toEpochMilli();
+    }
 
-        if (!matcher.matches()) {
-            return null;
+    // Comma separated, e.g. "survival,creative"; blank means every server. Throws on names that are not valid scopes.
+    public static Set<String> parseServerScopes(String value) {
+        if (value == null || value.isBlank()) {
+            return Set.of();
         }
 
-        int amount = Integer.parseInt(matcher.group(1));
-        String unit = matcher.group(2);
-
-        LocalDateTime startTime = LocalDateTime.now();
-        LocalDateTime endTime;
-
-        switch (unit) {
-            case "d":
-                endTime = startTime.plusDays(amount);
-                break;
-            case "h":
-                endTime = startTime.plusHours(amount);
-                break;
-            case "m":
-                endTime = startTime.plusMinutes(amount);
-                break;
-            case "s":
-                endTime = startTime.plusSeconds(amount);
-                break;
-            default:
-                return null;
+        Set<String> scopes = new TreeSet<>();
+        for (String part : value.split(",")) {
+            String scope = part.trim().toLowerCase(Locale.ROOT);
+            if (scope.isEmpty()) {
+                continue;
+            }
+            if (!SERVER_SCOPE.matcher(scope).matches()) {
+                throw new IllegalArgumentException("Invalid server or group name: " + part.trim());
+            }
+            scopes.add(scope);
         }
 
-        return new LocalDateTime[]{startTime, endTime};
+        String joined = String.join(",", scopes);
+        if (joined.length() > MAX_SERVER_SCOPES_LENGTH) {
+            throw new IllegalArgumentException("Server list is " + joined.length() + " characters long, at most "
+                    + MAX_SERVER_SCOPES_LENGTH + " fit, use a server group instead");
+        }
+        return Set.copyOf(scopes);
     }
 
-    public static LocalDateTime[] parseComplexTime(String timeInput) {
-        Matcher matcher = TIME_PATTERN.matcher(timeInput.toLowerCase());
-
-        LocalDateTime startTime = LocalDateTime.now();
-        LocalDateTime endTime = startTime;
-
-        boolean foundMatch = false;
-
-        while (matcher.find()) {
-            foundMatch = true;
-            int amount = Integer.parseInt(matcher.group(1));
-            String unit = matcher.group(2);
-
-            switch (unit) {
-                case "d":
-                    endTime = endTime.plusDays(amount);
-                    break;
-                case "h":
-                    endTime = endTime.plusHours(amount);
-                    break;
-                case "m":
-                    endTime = endTime.plusMinutes(amount);
-                    break;
-                case "s":
-                    endTime = endTime.plusSeconds(amount);
-                    break;
-            }
-        }
+    public static String joinServerScopes(Set<String> scopes) {
+        return String.join(",", new TreeSet<>(scopes));
+    }
 
-        return foundMatch ? new LocalDateTime[]{startTime, endTime} : null;
+    public static UUID uuidFromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
     }
 }
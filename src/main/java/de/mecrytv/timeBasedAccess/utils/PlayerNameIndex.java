@@ -0,0 +1,151 @@
+package de.mecrytv.timeBasedAccess.utils;
+
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.connection.PostLoginEvent;
+import com.velocitypowered.api.proxy.Player;
+import de.mecrytv.timeBasedAccess.database.access.AccessChangeListener;
+import de.mecrytv.timeBasedAccess.database.access.AccessManager;
+import de.mecrytv.timeBasedAccess.database.access.PlayerAccess;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+
+// Sorted in-memory name index for tab completion, fed by stored grants, access changes and online players.
+public class PlayerNameIndex implements AccessChangeListener {
+
+    private final NavigableMap<String, UUID> storedByName = new ConcurrentSkipListMap<>();
+    private final Map<UUID, StoredName> storedByUUID = new ConcurrentHashMap<>();
+    private final NavigableMap<String, String> onlineByName = new ConcurrentSkipListMap<>();
+
+    private final Logger logger;
+
+    public PlayerNameIndex(Logger logger) {
+        this.logger = logger;
+    }
+
+    // Streams every stored name once; writes that happen meanwhile arrive through the change listener.
+    public void load(AccessManager accessManager, Executor executor, Collection<Player> onlinePlayers) {
+        onlinePlayers.forEach(this::addOnline);
+
+        executor.execute(() -> {
+            long started = System.currentTimeMillis();
+            try {
+                accessManager.exportPlayerAccesses(access -> storedByUUID.computeIfAbsent(access.getPlayerUUID(), uuid -> {
+                    storedByName.putIfAbsent(key(access.getPlayerName()), uuid);
+                    return new StoredName(access);
+                }));
+                logger.info("Indexed {} player names in {} ms", storedByUUID.size(), System.currentTimeMillis() - started);
+            } catch (Exception e) {
+                logger.error("Error loading player names for tab completion: ", e);
+            }
+        });
+    }
+
+    public List<String> suggest(String prefix, boolean includeOnline, int limit) {
+        String from = key(prefix);
+        String to = from + Character.MAX_VALUE;
+
+        Iterator<Map.Entry<String, UUID>> stored = storedByName.subMap(from, to).entrySet().iterator();
+        Iterator<Map.Entry<String, String>> online = includeOnline
+                ? onlineByName.subMap(from, to).entrySet().iterator()
+                : null;
+
+        List<String> result = new ArrayList<>(Math.min(limit, 16));
+        Map.Entry<String, UUID> nextStored = next(stored);
+        Map.Entry<String, String> nextOnline = online != null ? next(online) : null;
+
+        // Both sources are sorted by the lower-case name, so a merge keeps the output sorted and free of duplicates.
+        while (result.size() < limit && (nextStored != null || nextOnline != null)) {
+            int order = nextStored == null ? 1 : nextOnline == null ? -1 : nextStored.getKey().compareTo(nextOnline.getKey());
+
+            if (order <= 0) {
+                StoredName name = storedByUUID.get(nextStored.getValue());
+                result.add(name != null ? name.displayName : nextStored.getKey());
+                nextStored = next(stored);
+                if (order == 0) {
+                    nextOnline = next(online);
+                }
+            } else {
+                result.add(nextOnline.getValue());
+                nextOnline = next(online);
+            }
+        }
+
+        return result;
+    }
+
+    private static <T> T next(Iterator<T> iterator) {
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    @Subscribe
+    public void onPostLogin(PostLoginEvent event) {
+        addOnline(event.getPlayer());
+    }
+
+    @Subscribe
+    public void onDisconnect(DisconnectEvent event) {
+        onlineByName.remove(key(event.getPlayer().getUsername()));
+    }
+
+    private void addOnline(Player player) {
+        onlineByName.put(key(player.getUsername()), player.getUsername());
+    }
+
+    @Override
+    public void onAccessUpdated(PlayerAccess playerAccess) {
+        StoredName previous = storedByUUID.put(playerAccess.getPlayerUUID(), new StoredName(playerAccess));
+        if (previous != null && !previous.displayName.equalsIgnoreCase(playerAccess.getPlayerName())) {
+            storedByName.remove(key(previous.displayName), playerAccess.getPlayerUUID());
+        }
+        storedByName.put(key(playerAccess.getPlayerName()), playerAccess.getPlayerUUID());
+    }
+
+    @Override
+    public void onAccessRemoved(UUID playerUUID) {
+        StoredName previous = storedByUUID.remove(playerUUID);
+        if (previous != null) {
+            storedByName.remove(key(previous.displayName), playerUUID);
+        }
+    }
+
+    @Override
+    public void onExpiredRemoved(long cutoffMillis) {
+        storedByUUID.forEach((playerUUID, name) -> {
+            if (!name.perma && name.endMillis < cutoffMillis) {
+                onAccessRemoved(playerUUID);
+            }
+        });
+    }
+
+    public int size() {
+        return storedByUUID.size();
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class StoredName {
+        private final String displayName;
+        private final long endMillis;
+        private final boolean perma;
+
+        private StoredName(PlayerAccess playerAccess) {
+            this.displayName = playerAccess.getPlayerName();
+            this.endMillis = playerAccess.getAccessEndMillis();
+            this.perma = playerAccess.isPermaAccess();
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package de.mecrytv.timeBasedAccess.utils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/*
+ * Single-pass parser for access time arguments. Accepted forms:
+ *   1h30m, 2w, 1mo, 1y        duration from now (units s, m, h, d, w, mo, y; case-insensitive)
+ *   2025-12-31[T18:00[:30]]   until an absolute date, also written as 31.12.2025[T18:00]
+ *   <from>..<to>              explicit window; a duration as <from> is counted from now,
+ *                             a duration as <to> is counted from <from>
+ * Durations are added to the instant, so 1d is always 24 hours; months and years step the UTC calendar. Absolute
+ * dates are wall-clock times in the given zone.
+ * Scanning works on the CharSequence directly and allocates nothing; only parse() creates its result.
+ */
+public final class TimeParser {
+
+    // A parsed term packed into one long: bit 62 marks an absolute time, otherwise bits 44..61 hold months and 0..43 seconds.
+    private static final long INVALID = -1L;
+    private static final long ABSOLUTE = 1L << 62;
+    private static final int MONTH_SHIFT = 44;
+    private static final long SECONDS_MASK = (1L << MONTH_SHIFT) - 1;
+    private static final long MAX_MONTHS = (1L << (62 - MONTH_SHIFT)) - 1;
+    private static final long MAX_AMOUNT = 1_000_000L;
+
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private TimeParser() {
+    }
+
+    // Returns null for malformed input and for windows that end before they start or before now.
+    public static TimeRange parse(CharSequence input, Instant now, ZoneId zone) {
+        long nowSecond = now.getEpochSecond();
+        int length = input.length();
+        int split = indexOfRange(input, length);
+
+        long start;
+        long end;
+
+        if (split < 0) {
+            long term = parseTerm(input, 0, length);
+            if (term == INVALID) {
+                return null;
+            }
+            start = nowSecond;
+            end = resolve(term, nowSecond, zone);
+        } else {
+            long from = parseTerm(input, 0, split);
+            long to = parseTerm(input, split + 2, length);
+            if (from == INVALID || to == INVALID) {
+                return null;
+            }
+            start = resolve(from, nowSecond, zone);
+            end = resolve(to, start, zone);
+        }
+
+        if (end <= start || end <= nowSecond) {
+            return null;
+        }
+        return new TimeRange(start, end);
+    }
+
+    // Syntax check only, for tab completion on every keystroke.
+    public static boolean isValid(CharSequence input) {
+        int length = input.length();
+        int split = indexOfRange(input, length);
+
+        if (split < 0) {
+            return parseTerm(input, 0, length) != INVALID;
+        }
+        return parseTerm(input, 0, split) != INVALID && parseTerm(input, split + 2, length) != INVALID;
+    }
+
+    private static int indexOfRange(CharSequence input, int length) {
+        for (int i = 0; i + 1 < length; i++) {
+            if (input.charAt(i) == '.' && input.charAt(i + 1) == '.') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long parseTerm(CharSequence input, int from, int to) {
+        if (from >= to) {
+            return INVALID;
+        }
+        if (to - from >= 10 && input.charAt(from + 4) == '-') {
+            return parseDate(input, from, to, from, from + 5, from + 8, from + 10);
+        }
+        if (to - from >= 10 && input.charAt(from + 2) == '.' && input.charAt(from + 5) == '.') {
+            return parseDate(input, from, to, from + 6, from + 3, from, from + 10);
+        }
+        return parseDuration(input, from, to);
+    }
+
+    private static long parseDuration(CharSequence input, int from, int to) {
+        long seconds = 0;
+        long months = 0;
+        int i = from;
+
+        while (i < to) {
+            long amount = 0;
+            int digits = 0;
+            char c;
+            while (i < to && (c = input.charAt(i)) >= '0' && c <= '9') {
+                amount = amount * 10 + (c - '0');
+                if (amount > MAX_AMOUNT) {
+                    return INVALID;
+                }
+                digits++;
+                i++;
+            }
+            if (digits == 0 || i >= to) {
+                return INVALID;
+            }
+
+            char unit = (char) (input.charAt(i++) | 0x20);
+            switch (unit) {
+                case 's':
+                    seconds += amount;
+                    break;
+                case 'm':
+                    if (i < to && (input.charAt(i) | 0x20) == 'o') {
+                        months += amount;
+                        i++;
+                    } else {
+                        seconds += amount * 60;
+                    }
+                    break;
+                case 'h':
+                    seconds += amount * 3_600;
+                    break;
+                case 'd':
+                    seconds += amount * SECONDS_PER_DAY;
+                    break;
+                case 'w':
+                    seconds += amount * 7 * SECONDS_PER_DAY;
+                    break;
+                case 'y':
+                    months += amount * 12;
+                    break;
+                default:
+                    return INVALID;
+            }
+
+            if (seconds > SECONDS_MASK || months > MAX_MONTHS) {
+                return INVALID;
+            }
+        }
+
+        if (seconds == 0 && months == 0) {
+            return INVALID;
+        }
+        return (months << MONTH_SHIFT) | seconds;
+    }
+
+    // Date fields are read at the given offsets; an optional THH:mm[:ss] may follow at timeAt.
+    private static long parseDate(CharSequence input, int from, int to, int yearAt, int monthAt, int dayAt, int timeAt) {
+        int year = digits(input, yearAt, 4);
+        int month = digits(input, monthAt, 2);
+        int day = digits(input, dayAt, 2);
+        if (year < 1970 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return INVALID;
+        }
+
+        // Both layouts use a single separator between day, month and year.
+        char separator = input.charAt(from + (yearAt == from ? 4 : 2));
+        if (input.charAt(from + (yearAt == from ? 7 : 5)) != separator) {
+            return INVALID;
+        }
+
+        int secondOfDay = 0;
+        if (timeAt < to) {
+            int remaining = to - timeAt;
+            if ((remaining != 6 && remaining != 9) || (input.charAt(timeAt) | 0x20) != 't' || input.charAt(timeAt + 3) != ':') {
+                return INVALID;
+            }
+
+            int hour = digits(input, timeAt + 1, 2);
+            int minute = digits(input, timeAt + 4, 2);
+            int second = 0;
+            if (remaining == 9) {
+                if (input.charAt(timeAt + 6) != ':') {
+                    return INVALID;
+                }
+                second = digits(input, timeAt + 7, 2);
+            }
+            if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+                return INVALID;
+            }
+            secondOfDay = hour * 3_600 + minute * 60 + second;
+        }
+
+        return ABSOLUTE | (daysFromCivil(year, month, day) * SECONDS_PER_DAY + secondOfDay);
+    }
+
+    private static int digits(CharSequence input, int at, int count) {
+        int value = 0;
+        for (int i = at; i < at + count; i++) {
+            char c = input.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // Returns epoch seconds; a wall-clock time in a DST gap or overlap resolves like ZonedDateTime does.
+    private static long resolve(long term, long baseSecond, ZoneId zone) {
+        if ((term & ABSOLUTE) != 0) {
+            return LocalDateTime.ofEpochSecond(term & ~ABSOLUTE, 0, ZoneOffset.UTC).atZone(zone).toEpochSecond();
+        }
+
+        long months = term >>> MONTH_SHIFT;
+        long result = months == 0 ? baseSecond : plusMonths(baseSecond, months);
+        return result + (term & SECONDS_MASK);
+    }
+
+    // Calendar month arithmetic like LocalDateTime.plusMonths in UTC, clamping to the last day of a shorter month.
+    private static long plusMonths(long second, long months) {
+        long epochDay = Math.floorDiv(second, SECONDS_PER_DAY);
+        long secondOfDay = second - epochDay * SECONDS_PER_DAY;
+
+        long z = epochDay + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        long totalMonths = year * 12 + (month - 1) + months;
+        year = Math.floorDiv(totalMonths, 12);
+        month = (int) (totalMonths - year * 12) + 1;
+        day = Math.min(day, lengthOfMonth(year, month));
+
+        return daysFromCivil(year, month, day) * SECONDS_PER_DAY + secondOfDay;
+    }
+
+    private static long daysFromCivil(long year, int month, int day) {
+        year -= month <= 2 ? 1 : 0;
+        long era = Math.floorDiv(year, 400);
+        long yearOfEra = year - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private static int lengthOfMonth(long year, int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package de.mecrytv.timeBasedAccess.utils;
+
+import java.time.Instant;
+
+// Start and end as UTC epoch seconds; Instant objects are only built on request.
+public final class TimeRange {
+
+    private final long startSecond;
+    private final long endSecond;
+
+    TimeRange(long startSecond, long endSecond) {
+        this.startSecond = startSecond;
+        this.endSecond = endSecond;
+    }
+
+    public long getStartSecond() {
+        return startSecond;
+    }
+
+    public long getEndSecond() {
+        return endSecond;
+    }
+
+    public long getDurationSeconds() {
+        return endSecond - startSecond;
+    }
+
+    public Instant getStart() {
+        return Instant.ofEpochSecond(startSecond);
+    }
+
+    public Instant getEnd() {
+        return Instant.ofEpochSecond(endSecond);
+    }
+
+    @Override
+    public String toString() {
+        return getStart() + ".." + getEnd();
+    }
+}
@@ -0,0 +1,279 @@
+package de.mecrytv.timeBasedAccess.utils;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.velocitypowered.api.proxy.Player;
+import de.mecrytv.timeBasedAccess.TimeBasedAccess;
+import de.mecrytv.timeBasedAccess.metrics.OperationTimer;
+import org.spongepowered.configurate.ConfigurationNode;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.regex.Pattern;
+
+public class UUIDResolver {
+
+    private static final Pattern NAME_PATTERN = Pattern.compile("[A-Za-z0-9_]{1,16}");
+    private static final int BULK_REQUEST_SIZE = 10;
+
+    private final HttpClient http;
+    private final Executor executor;
+    private final String apiUrl;
+    private final String bulkApiUrl;
+    private final Duration requestTimeout;
+    private final long positiveTtlMillis;
+    private final long negativeTtlMillis;
+    private final int maxCacheSize;
+    private final OperationTimer lookupTimer;
+    private final OperationTimer bulkLookupTimer;
+
+    private final Map<String, CachedLookup> cache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Optional<UUID>>> inFlight = new ConcurrentHashMap<>();
+
+    public UUIDResolver(ConfigurationNode config, Executor executor) {
+        String url = config.node("api-url").getString("https://api.mojang.com/users/profiles/minecraft/");
+
+        this.executor = executor;
+        this.apiUrl = url.endsWith("/") ? url : url + "/";
+        this.bulkApiUrl = config.node("bulk-api-url").getString("https://api.minecraftservices.com/minecraft/profile/lookup/bulk/byname");
+        this.requestTimeout = Duration.ofMillis(config.node("timeout-millis").getLong(5000));
+        this.positiveTtlMillis = Duration.ofMinutes(config.node("cache").node("positive-ttl-minutes").getLong(60)).toMillis();
+        this.negativeTtlMillis = Duration.ofMinutes(config.node("cache").node("negative-ttl-minutes").getLong(5)).toMillis();
+        this.maxCacheSize = Math.max(16, config.node("cache").node("max-size").getInt(5000));
+        this.lookupTimer = TimeBasedAccess.getMetrics().mojangTimer("single");
+        this.bulkLookupTimer = TimeBasedAccess.getMetrics().mojangTimer("bulk");
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(requestTimeout)
+                .executor(executor)
+                .build();
+    }
+
+    public CompletableFuture<Optional<UUID>> resolve(String playerName) {
+        if (!NAME_PATTERN.matcher(playerName).matches()) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        Optional<Player> onlinePlayer = TimeBasedAccess.getInstance().getServer().getPlayer(playerName);
+        if (onlinePlayer.isPresent()) {
+            return CompletableFuture.completedFuture(Optional.of(onlinePlayer.get().getUniqueId()));
+        }
+
+        String key = playerName.toLowerCase(Locale.ROOT);
+
+        CompletableFuture<Optional<UUID>> pending = inFlight.get(key);
+        if (pending != null) {
+            return pending;
+        }
+
+        CompletableFuture<Optional<UUID>> future = new CompletableFuture<>();
+        pending = inFlight.putIfAbsent(key, future);
+        if (pending != null) {
+            return pending;
+        }
+
+        future.whenComplete((uuid, error) -> inFlight.remove(key, future));
+
+        CompletableFuture.supplyAsync(() -> TimeBasedAccess.getAccessManager().findPlayerUUIDByName(playerName), executor)
+                .thenCompose(stored -> stored.isPresent()
+                        ? CompletableFuture.completedFuture(stored)
+                        : resolveCachedOrRemote(key))
+                .whenComplete((uuid, error) -> {
+                    if (error != null) {
+                        future.completeExceptionally(error);
+                    } else {
+                        future.complete(uuid);
+                    }
+                });
+
+        return future;
+    }
+
+    // Resolves many names with one store query and Mojang bulk requests; result keys are lower-case names.
+    public CompletableFuture<Map<String, UUID>> resolveAll(Collection<String> playerNames) {
+        Map<String, UUID> result = new ConcurrentHashMap<>();
+        Set<String> pending = new LinkedHashSet<>();
+
+        for (String playerName : playerNames) {
+            if (!NAME_PATTERN.matcher(playerName).matches()) {
+                continue;
+            }
+
+            Optional<Player> onlinePlayer = TimeBasedAccess.getInstance().getServer().getPlayer(playerName);
+            if (onlinePlayer.isPresent()) {
+                result.put(playerName.toLowerCase(Locale.ROOT), onlinePlayer.get().getUniqueId());
+            } else {
+                pending.add(playerName.toLowerCase(Locale.ROOT));
+            }
+        }
+
+        if (pending.isEmpty()) {
+            return CompletableFuture.completedFuture(result);
+        }
+
+        return CompletableFuture.supplyAsync(() -> TimeBasedAccess.getAccessManager().findPlayerUUIDsByNames(pending), executor)
+                .thenCompose(stored -> {
+                    result.putAll(stored);
+
+                    List<String> remote = new ArrayList<>();
+                    long now = System.currentTimeMillis();
+                    for (String key : pending) {
+                        if (stored.containsKey(key)) {
+                            continue;
+                        }
+
+                        CachedLookup cached = cache.get(key);
+                        if (cached != null && cached.expiresAt > now) {
+                            if (cached.uuid != null) {
+                                result.put(key, cached.uuid);
+                            }
+                        } else {
+                            remote.add(key);
+                        }
+                    }
+
+                    // Mojang accepts at most ten names per bulk request; send them one after another.
+                    CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+                    for (int from = 0; from < remote.size(); from += BULK_REQUEST_SIZE) {
+                        List<String> group = remote.subList(from, Math.min(from + BULK_REQUEST_SIZE, remote.size()));
+                        chain = chain.thenCompose(ignored -> lookupBulk(group).thenAccept(result::putAll));
+                    }
+                    return chain.thenApply(ignored -> result);
+                });
+    }
+
+    private CompletableFuture<Map<String, UUID>> lookupBulk(List<String> keys) {
+        JsonArray body = new JsonArray();
+        keys.forEach(body::add);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(bulkApiUrl))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+
+        long start = System.nanoTime();
+        return timed(bulkLookupTimer, start, http.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("Mojang API antwortete mit Status " + response.statusCode());
+                    }
+
+                    Map<String, UUID> found = new HashMap<>();
+                    for (JsonElement element : JsonParser.parseString(response.body()).getAsJsonArray()) {
+                        JsonObject profile = element.getAsJsonObject();
+                        found.put(profile.get("name").getAsString().toLowerCase(Locale.ROOT),
+                                fromUndashed(profile.get("id").getAsString()));
+                    }
+
+                    for (String key : keys) {
+                        remember(key, found.get(key));
+                    }
+                    return found;
+                }));
+    }
+
+    public void invalidate(String playerName) {
+        cache.remove(playerName.toLowerCase(Locale.ROOT));
+    }
+
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    private CompletableFuture<Optional<UUID>> resolveCachedOrRemote(String key) {
+        CachedLookup cached = cache.get(key);
+        if (cached != null) {
+            if (cached.expiresAt > System.currentTimeMillis()) {
+                return CompletableFuture.completedFuture(Optional.ofNullable(cached.uuid));
+            }
+            cache.remove(key, cached);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(apiUrl + key))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+
+        long start = System.nanoTime();
+        return timed(lookupTimer, start, http.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    Optional<UUID> uuid = parseResponse(response);
+                    remember(key, uuid.orElse(null));
+                    return uuid;
+                }));
+    }
+
+    private static <T> CompletableFuture<T> timed(OperationTimer timer, long start, CompletableFuture<T> future) {
+        return future.whenComplete((result, error) -> {
+            timer.record(System.nanoTime() - start);
+            if (error != null) {
+                timer.recordError();
+            }
+        });
+    }
+
+    private Optional<UUID> parseResponse(HttpResponse<String> response) {
+        int status = response.statusCode();
+
+        if (status == 204 || status == 404) {
+            return Optional.empty();
+        }
+
+        if (status != 200) {
+            throw new IllegalStateException("Mojang API antwortete mit Status " + status);
+        }
+
+        JsonObject json = JsonParser.parseString(response.body()).getAsJsonObject();
+        return Optional.of(fromUndashed(json.get("id").getAsString()));
+    }
+
+    private void remember(String key, UUID uuid) {
+        if (cache.size() >= maxCacheSize) {
+            long now = System.currentTimeMillis();
+            cache.values().removeIf(lookup -> lookup.expiresAt <= now);
+            if (cache.size() >= maxCacheSize) {
+                cache.clear();
+            }
+        }
+
+        long ttl = uuid != null ? positiveTtlMillis : negativeTtlMillis;
+        cache.put(key, new CachedLookup(uuid, System.currentTimeMillis() + ttl));
+    }
+
+    static UUID fromUndashed(String rawUuid) {
+        return new UUID(
+                Long.parseUnsignedLong(rawUuid, 0, 16, 16),
+                Long.parseUnsignedLong(rawUuid, 16, 32, 16)
+        );
+    }
+
+    private static final class CachedLookup {
+        private final UUID uuid;
+        private final long expiresAt;
+
+        private CachedLookup(UUID uuid, long expiresAt) {
+            this.uuid = uuid;
+            this.expiresAt = expiresAt;
+        }
+    }
+}